@@ -10,12 +10,7 @@
 package org.zamia.plugin;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 
-import org.apache.oro.text.GlobCompiler;
-import org.apache.oro.text.regex.MalformedPatternException;
-import org.apache.oro.text.regex.Pattern;
-import org.apache.oro.text.regex.Perl5Matcher;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.KeyAdapter;
 import org.eclipse.swt.events.KeyEvent;
@@ -39,17 +34,10 @@ import org.eclipse.swt.widgets.List;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.dialogs.SelectionStatusDialog;
-import org.zamia.BuildPath;
 import org.zamia.ExceptionLogger;
-import org.zamia.Toplevel;
 import org.zamia.ToplevelPath;
 import org.zamia.ZamiaLogger;
 import org.zamia.ZamiaProject;
-import org.zamia.instgraph.IGInstMapInfo;
-import org.zamia.instgraph.IGManager;
-import org.zamia.instgraph.IGModule;
-import org.zamia.util.HashSetArray;
-import org.zamia.util.PathName;
 
 
 /**
@@ -71,8 +59,6 @@ public class FindSignalDialog extends SelectionStatusDialog {
 
 		private boolean fCanceled = false;
 
-		public Pattern fPattern;
-
 		public synchronized void setSearchString(String aSearchString) {
 			fSearchString = aSearchString;
 			fNewSearchJob = true;
@@ -105,120 +91,46 @@ public class FindSignalDialog extends SelectionStatusDialog {
 
 					long startTime = System.currentTimeMillis();
 
-					fDisplay.asyncExec(new Runnable() {
-						public void run() {
-							fList.removeAll();
-						}
-					});
-
-					fResults = new HashSetArray<ToplevelPath>();
-
-					try {
-
-						Pattern pattern = fGlob.compile(searchString, GlobCompiler.CASE_INSENSITIVE_MASK);
-
-						BuildPath bp = fZPrj.getBuildPath();
-						if (bp == null) {
+					if (fIndex == null) {
+						fIndex = SignalIndex.getProjectIndex(fZPrj);
+						if (fIndex == null) {
 							continue;
 						}
+					}
 
-						for (Toplevel tl : bp.toplevels()) {
-
-							IGModule module = fIGM.findModule(tl);
-
-							if (module != null) {
-								searchSignals(pattern, module.getDBID(), tl, new PathName(""));
-							}
-						}
-
-						long stopTime = System.currentTimeMillis();
-
-						long d = (stopTime - startTime) / 1000;
+					if (fCanceled || fNewSearchJob) {
+						continue;
+					}
 
-						logger.debug("Search job took %d seconds", d);
+					final int results[] = fIndex.find(searchString, fSearchLimit);
 
-						if (!fCanceled) {
-							fDisplay.asyncExec(new Runnable() {
+					final String items[] = new String[results.length];
+					for (int i = 0; i < results.length; i++) {
+						items[i] = fIndex.getToplevelPath(results[i]).toString();
+					}
 
-								public void run() {
-									fList.removeAll();
-									for (int i = 0; i < fResults.size(); i++) {
+					long stopTime = System.currentTimeMillis();
 
-										try {
-											ToplevelPath tlp = fResults.get(i);
+					logger.debug("FindSignalDialog: search took %d ms, %d results", stopTime - startTime, results.length);
 
-											String pstr = tlp.toString();
+					if (!fCanceled) {
+						fDisplay.asyncExec(new Runnable() {
 
-											fList.add(pstr);
-										} catch (Throwable t) {
-										}
-									}
+							public void run() {
+								if (fList.isDisposed()) {
+									return;
 								}
-							});
-
-						}
-					} catch (MalformedPatternException e1) {
-						el.logException(e1);
+								fResults = results;
+								fList.setItems(items);
+								fProgressLabel.setText(items.length >= SignalIndex.MAX_RESULTS ? "First " + items.length + " signals shown" : "");
+							}
+						});
 					}
 
 				} catch (InterruptedException e) {
 					e.printStackTrace();
-				}
-			}
-		}
-
-		class AddResultJob implements Runnable {
-			private final String fStr;
-
-			public AddResultJob(String aStr) {
-				fStr = aStr;
-			}
-
-			@Override
-			public void run() {
-				fList.add(fStr);
-			}
-		}
-
-		private void searchSignals(Pattern aPattern, long aDBID, Toplevel aTL, PathName aPathName) {
-
-			Iterator<String> it = fIGM.getSignalIdIterator(aDBID);
-
-			if (it != null) {
-				while (it.hasNext()) {
-
-					if (fCanceled || fNewSearchJob || fResults.size() > fSearchLimit) {
-						return;
-					}
-
-					PathName path = aPathName.append(it.next());
-
-					String str = path.toString();
-
-					if (fMatcher.matches(str, aPattern)) {
-
-						ToplevelPath tlp = new ToplevelPath(aTL, path);
-
-						fResults.add(tlp);
-
-						fDisplay.asyncExec(new AddResultJob(tlp.toString()));
-					}
-				}
-			}
-
-			Iterator<IGInstMapInfo> it2 = fIGM.getInstIterator(aDBID);
-			if (it2 != null) {
-				while (it2.hasNext()) {
-
-					if (fCanceled || fNewSearchJob || fResults.size() > fSearchLimit) {
-						return;
-					}
-
-					IGInstMapInfo info = it2.next();
-
-					PathName path = aPathName.append(info.getLabel());
-
-					searchSignals(aPattern, info.getDBID(), aTL, path);
+				} catch (Throwable t) {
+					el.logException(t);
 				}
 			}
 		}
@@ -228,7 +140,10 @@ public class FindSignalDialog extends SelectionStatusDialog {
 		}
 	}
 
-	private HashSetArray<ToplevelPath> fResults;
+	private SignalIndex fIndex;
+
+	// indices into fIndex of the signals currently displayed in fList
+	private int[] fResults = new int[0];
 
 	private Text fPatternText;
 
@@ -250,20 +165,11 @@ public class FindSignalDialog extends SelectionStatusDialog {
 
 	private Label fBusyLabel;
 
-	private IGManager fIGM;
-
-	private GlobCompiler fGlob;
-
-	private Perl5Matcher fMatcher;
-
 	public FindSignalDialog(Shell aShell, ZamiaProject aZPrj) {
 		super(aShell);
 
 		fDisplay = aShell.getDisplay();
 		fZPrj = aZPrj;
-		fIGM = aZPrj.getIGM();
-		fGlob = new GlobCompiler();
-		fMatcher = new Perl5Matcher();
 	}
 
 	protected void applyFilter() {
@@ -277,8 +183,8 @@ public class FindSignalDialog extends SelectionStatusDialog {
 
 		ArrayList<ToplevelPath> res = new ArrayList<ToplevelPath>(1);
 
-		if (idx >= 0) {
-			res.add(fResults.get(idx));
+		if (idx >= 0 && idx < fResults.length) {
+			res.add(fIndex.getToplevelPath(fResults[idx]));
 		}
 
 		setResult(res);
@@ -336,6 +242,8 @@ public class FindSignalDialog extends SelectionStatusDialog {
 		fCombo.add("25");
 		fCombo.add("50");
 		fCombo.add("100");
+		fCombo.add("1000");
+		fCombo.add("All");
 
 		fCombo.select(0);
 
@@ -358,6 +266,12 @@ public class FindSignalDialog extends SelectionStatusDialog {
 				case 2:
 					fSearchLimit = 100;
 					break;
+				case 3:
+					fSearchLimit = 1000;
+					break;
+				case 4:
+					fSearchLimit = SignalIndex.MAX_RESULTS;
+					break;
 				}
 
 				applyFilter();
@@ -0,0 +1,476 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+
+package org.zamia.plugin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IPath;
+import org.zamia.BuildPath;
+import org.zamia.ExceptionLogger;
+import org.zamia.Toplevel;
+import org.zamia.ToplevelPath;
+import org.zamia.ZamiaLogger;
+import org.zamia.ZamiaProject;
+import org.zamia.instgraph.IGInstMapInfo;
+import org.zamia.instgraph.IGManager;
+import org.zamia.instgraph.IGModule;
+import org.zamia.util.PathName;
+
+
+/**
+ * Sorted index of hierarchical signal path names.
+ *
+ * Supports three kinds of (case insensitive) queries:
+ *
+ * - plain strings are substring queries
+ *
+ * - strings whose only wildcards are trailing '*'s are prefix queries
+ *   (binary search)
+ *
+ * - everything else is matched as a glob pattern ('*', '?', '[...]')
+ *
+ * The project index covers all signals of the elaborated toplevels, it is
+ * built once per elaboration, saved in the project's working location and
+ * dropped by the builder whenever the project is rebuilt.
+ */
+
+public class SignalIndex {
+
+	public final static ZamiaLogger logger = ZamiaLogger.getInstance();
+
+	public final static ExceptionLogger el = ExceptionLogger.getInstance();
+
+	private static final int FILE_VERSION = 1;
+
+	private static final String FILE_NAME = "signals.idx";
+
+	/**
+	 * Result limit for "all" results: more than this would only fill up a
+	 * list widget.
+	 */
+
+	public static final int MAX_RESULTS = 10000;
+
+	private static HashMap<IProject, SignalIndex> fProjectIndices = new HashMap<IProject, SignalIndex>();
+
+	// incremented by invalidate(), guarded by fProjectIndices
+	private static int fGeneration = 0;
+
+	// path names, sorted case insensitively
+	private final String[] fPaths;
+
+	// toplevel each path belongs to (index into fToplevels), may be null
+	private final int[] fTLs;
+
+	private final Toplevel[] fToplevels;
+
+	private SignalIndex(String[] aPaths, int[] aTLs, Toplevel[] aToplevels) {
+
+		int n = aPaths.length;
+
+		int order[] = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		sort(order, aPaths);
+
+		fPaths = new String[n];
+		fTLs = aTLs != null ? new int[n] : null;
+		for (int i = 0; i < n; i++) {
+			int idx = order[i];
+			fPaths[i] = aPaths[idx];
+			if (fTLs != null) {
+				fTLs[i] = aTLs[idx];
+			}
+		}
+
+		fToplevels = aToplevels;
+	}
+
+	// sorts aOrder by the (case insensitive) paths its entries point to, merge sort
+	private static void sort(int[] aOrder, String[] aPaths) {
+
+		int n = aOrder.length;
+		int src[] = aOrder;
+		int dst[] = new int[n];
+
+		for (int width = 1; width < n; width *= 2) {
+			for (int lo = 0; lo < n; lo += 2 * width) {
+				int mid = Math.min(lo + width, n);
+				int hi = Math.min(lo + 2 * width, n);
+				int i = lo;
+				int j = mid;
+				for (int k = lo; k < hi; k++) {
+					if (j >= hi || (i < mid && String.CASE_INSENSITIVE_ORDER.compare(aPaths[src[i]], aPaths[src[j]]) <= 0)) {
+						dst[k] = src[i++];
+					} else {
+						dst[k] = src[j++];
+					}
+				}
+			}
+			int tmp[] = src;
+			src = dst;
+			dst = tmp;
+		}
+
+		if (src != aOrder) {
+			System.arraycopy(src, 0, aOrder, 0, n);
+		}
+	}
+
+	public int getNumSignals() {
+		return fPaths.length;
+	}
+
+	public String getPath(int aIdx) {
+		return fPaths[aIdx];
+	}
+
+	public PathName getPathName(int aIdx) {
+		return new PathName(fPaths[aIdx]);
+	}
+
+	public ToplevelPath getToplevelPath(int aIdx) {
+		if (fTLs == null) {
+			return null;
+		}
+		return new ToplevelPath(fToplevels[fTLs[aIdx]], getPathName(aIdx));
+	}
+
+	/**
+	 * @return indices of matching paths in sorted order, at most aLimit of them
+	 */
+
+	public int[] find(String aQuery, int aLimit) {
+
+		String query = aQuery.trim();
+
+		int res[] = new int[Math.min(aLimit, fPaths.length)];
+		int n = 0;
+
+		int nWildcards = 0;
+		int firstWildcard = -1;
+		for (int i = 0; i < query.length(); i++) {
+			char c = query.charAt(i);
+			if (c == '*' || c == '?' || c == '[') {
+				if (firstWildcard < 0) {
+					firstWildcard = i;
+				}
+				nWildcards++;
+			}
+		}
+
+		if (nWildcards == 0) {
+
+			for (int i = 0; i < fPaths.length && n < res.length; i++) {
+				if (containsIgnoreCase(fPaths[i], query)) {
+					res[n++] = i;
+				}
+			}
+
+		} else if (nWildcards == query.length() - firstWildcard && query.indexOf('?', firstWildcard) < 0 && query.indexOf('[', firstWildcard) < 0) {
+
+			String prefix = query.substring(0, firstWildcard);
+
+			for (int i = lowerBound(prefix); i < fPaths.length && n < res.length; i++) {
+				if (!fPaths[i].regionMatches(true, 0, prefix, 0, prefix.length())) {
+					break;
+				}
+				res[n++] = i;
+			}
+
+		} else {
+
+			Matcher matcher = Pattern.compile(globToRegexp(query), Pattern.CASE_INSENSITIVE).matcher("");
+
+			for (int i = 0; i < fPaths.length && n < res.length; i++) {
+				if (matcher.reset(fPaths[i]).matches()) {
+					res[n++] = i;
+				}
+			}
+		}
+
+		return n == res.length ? res : Arrays.copyOf(res, n);
+	}
+
+	private static boolean containsIgnoreCase(String aStr, String aSub) {
+		int l = aSub.length();
+		int last = aStr.length() - l;
+		for (int i = 0; i <= last; i++) {
+			if (aStr.regionMatches(true, i, aSub, 0, l)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// index of the first path >= aKey
+	private int lowerBound(String aKey) {
+		int lo = 0;
+		int hi = fPaths.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (String.CASE_INSENSITIVE_ORDER.compare(fPaths[mid], aKey) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private static String globToRegexp(String aGlob) {
+		StringBuilder buf = new StringBuilder(aGlob.length() * 2);
+		boolean inClass = false;
+		for (int i = 0; i < aGlob.length(); i++) {
+			char c = aGlob.charAt(i);
+			if (inClass) {
+				if (c == ']') {
+					inClass = false;
+				} else if (c == '\\') {
+					buf.append('\\');
+				}
+				buf.append(c);
+				continue;
+			}
+			switch (c) {
+			case '*':
+				buf.append(".*");
+				break;
+			case '?':
+				buf.append('.');
+				break;
+			case '[':
+				if (aGlob.indexOf(']', i + 1) > i) {
+					inClass = true;
+					buf.append(c);
+				} else {
+					buf.append("\\[");
+				}
+				break;
+			default:
+				if (Character.isLetterOrDigit(c)) {
+					buf.append(c);
+				} else {
+					buf.append('\\').append(c);
+				}
+			}
+		}
+		return buf.toString();
+	}
+
+	/*
+	 * project indices
+	 */
+
+	/**
+	 * Returns the signal index of the given project, loading it from disk or
+	 * building it from the instantiation graph if necessary. Can take a while
+	 * on first use, so do not call this from the UI thread.
+	 */
+
+	public static SignalIndex getProjectIndex(ZamiaProject aZPrj) {
+
+		IProject prj = ZamiaProjectMap.getProject(aZPrj);
+
+		int generation;
+		synchronized (fProjectIndices) {
+			SignalIndex idx = fProjectIndices.get(prj);
+			if (idx != null) {
+				return idx;
+			}
+			generation = fGeneration;
+		}
+
+		BuildPath bp = aZPrj.getBuildPath();
+		if (bp == null) {
+			return null;
+		}
+
+		ArrayList<Toplevel> tls = new ArrayList<Toplevel>();
+		for (Toplevel tl : bp.toplevels()) {
+			tls.add(tl);
+		}
+		Toplevel toplevels[] = tls.toArray(new Toplevel[tls.size()]);
+
+		File file = getIndexFile(prj);
+
+		SignalIndex idx = file != null ? load(file, toplevels) : null;
+		boolean loaded = idx != null;
+
+		if (idx == null) {
+			long startTime = System.currentTimeMillis();
+
+			idx = build(aZPrj.getIGM(), toplevels);
+
+			logger.info("SignalIndex: indexed %d signals in %d ms", idx.getNumSignals(), System.currentTimeMillis() - startTime);
+		}
+
+		synchronized (fProjectIndices) {
+			// a build finished meanwhile: the index may be outdated, use it for this query only
+			if (generation == fGeneration) {
+				if (!loaded && file != null) {
+					idx.save(file);
+				}
+				fProjectIndices.put(prj, idx);
+			}
+		}
+
+		return idx;
+	}
+
+	/**
+	 * Drop the index of the given project, called whenever it is (re-)built.
+	 */
+
+	public static void invalidate(IProject aPrj) {
+		synchronized (fProjectIndices) {
+			fGeneration++;
+			fProjectIndices.remove(aPrj);
+
+			File file = getIndexFile(aPrj);
+			if (file != null && file.exists() && !file.delete()) {
+				logger.error("SignalIndex: failed to delete %s", file);
+			}
+		}
+	}
+
+	private static File getIndexFile(IProject aPrj) {
+		if (aPrj == null) {
+			return null;
+		}
+		IPath path = aPrj.getWorkingLocation(ZamiaPlugin.PLUGIN_ID);
+		if (path == null) {
+			return null;
+		}
+		return path.append(FILE_NAME).toFile();
+	}
+
+	private static SignalIndex build(IGManager aIGM, Toplevel[] aToplevels) {
+
+		ArrayList<String> paths = new ArrayList<String>();
+		ArrayList<Integer> tls = new ArrayList<Integer>();
+
+		for (int i = 0; i < aToplevels.length; i++) {
+
+			IGModule module = aIGM.findModule(aToplevels[i]);
+
+			if (module != null) {
+				int start = paths.size();
+				collectSignals(aIGM, module.getDBID(), new PathName(""), paths);
+				for (int j = start; j < paths.size(); j++) {
+					tls.add(i);
+				}
+			}
+		}
+
+		int tl[] = new int[tls.size()];
+		for (int i = 0; i < tl.length; i++) {
+			tl[i] = tls.get(i);
+		}
+
+		return new SignalIndex(paths.toArray(new String[paths.size()]), tl, aToplevels);
+	}
+
+	private static void collectSignals(IGManager aIGM, long aDBID, PathName aPathName, ArrayList<String> aPaths) {
+
+		Iterator<String> it = aIGM.getSignalIdIterator(aDBID);
+		if (it != null) {
+			while (it.hasNext()) {
+				aPaths.add(aPathName.append(it.next()).toString());
+			}
+		}
+
+		Iterator<IGInstMapInfo> it2 = aIGM.getInstIterator(aDBID);
+		if (it2 != null) {
+			while (it2.hasNext()) {
+				IGInstMapInfo info = it2.next();
+				collectSignals(aIGM, info.getDBID(), aPathName.append(info.getLabel()), aPaths);
+			}
+		}
+	}
+
+	private void save(File aFile) {
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(aFile))));
+			try {
+				out.writeInt(FILE_VERSION);
+				out.writeInt(fToplevels.length);
+				for (Toplevel tl : fToplevels) {
+					out.writeUTF(tl.toString());
+				}
+				out.writeInt(fPaths.length);
+				for (int i = 0; i < fPaths.length; i++) {
+					out.writeInt(fTLs[i]);
+					out.writeUTF(fPaths[i]);
+				}
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			el.logException(e);
+			aFile.delete();
+		}
+	}
+
+	private static SignalIndex load(File aFile, Toplevel[] aToplevels) {
+		if (!aFile.exists()) {
+			return null;
+		}
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(aFile))));
+			try {
+				if (in.readInt() != FILE_VERSION) {
+					return null;
+				}
+
+				// the toplevels must not have changed since the index was written
+				int nTLs = in.readInt();
+				if (nTLs != aToplevels.length) {
+					return null;
+				}
+				for (int i = 0; i < nTLs; i++) {
+					if (!in.readUTF().equals(aToplevels[i].toString())) {
+						return null;
+					}
+				}
+
+				int n = in.readInt();
+				String paths[] = new String[n];
+				int tls[] = new int[n];
+				for (int i = 0; i < n; i++) {
+					tls[i] = in.readInt();
+					paths[i] = in.readUTF();
+				}
+
+				return new SignalIndex(paths, tls, aToplevels);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			el.logException(e);
+			return null;
+		}
+	}
+}
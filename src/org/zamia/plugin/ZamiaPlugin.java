@@ -78,6 +78,7 @@ import org.zamia.plugin.editors.completion.VHDLContext;
 import org.zamia.plugin.efs.ZamiaFileStore;
 import org.zamia.plugin.views.navigator.IGModuleWrapper;
 import org.zamia.plugin.views.rtl.RTLView;
+import org.zamia.plugin.views.sim.SimWorkers;
 import org.zamia.util.PathName;
 
 /**
@@ -214,6 +215,7 @@ public class ZamiaPlugin extends AbstractUIPlugin {
 		super.stop(context);
 		ZamiaLogger.setConsoleOutput(null);
 		ZamiaProjectMap.shutdown();
+		SimWorkers.shutdown();
 		System.out.println("zamiaCAD shutdown complete.");
 		System.out.println("Logfile: " + logger.getLogFileName());
 		System.out.println();
@@ -483,15 +485,6 @@ public class ZamiaPlugin extends AbstractUIPlugin {
 			if (nline < 0)
 				nline = 0;
 
-			if (textEditor instanceof ZamiaEditor) {
-				ZamiaEditor ze = (ZamiaEditor) textEditor;
-				if (ze.isAnnotated()) {
-					document = ze.getDocument();
-					nline *= 2;
-					nline++;
-				}
-			}
-
 			IRegion line = document.getLineInformation(nline);
 			textEditor.selectAndReveal(line.getOffset() + aLocation.fCol - 1, aLength);
 		} catch (CoreException e) {
@@ -13,6 +13,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -64,8 +65,15 @@ public class ZamiaProjectMap {
 		 And, because of eclipse bug 367021, we must keep an extra list of project files
 		 so that when link is deleted, we could locate its absolute path. 
 		
-  		 Maps local project path => absolute path  		 */
-		public final Map<String, String> projectFiles = new HashMap<String, String>();
+  		 Maps local project path => absolute path. Guarded by this iterator,
+  		 use getAbsolutePath() from outside.  		 */
+		private final Map<String, String> projectFiles = new HashMap<String, String>();
+
+		/** Reverse index: absolute path => local project paths of all links to it */
+		private final Map<String, Set<String>> absToLocal = new HashMap<String, Set<String>>();
+
+		/** local project path => IFile */
+		private final Map<String, IFile> localToFile = new HashMap<String, IFile>();
 		
 		EclipseProjectFileIterator(String baseDir, IProject aProject) throws IOException {
 			super(baseDir);
@@ -77,27 +85,45 @@ public class ZamiaProjectMap {
 			}
 		}
 		
-		public SourceFile toSF(File absoluteLocation) throws ZamiaException {
-			for (String key : projectFiles.keySet()) {
-				String value = projectFiles.get(key);
-				if (new File(value).equals(absoluteLocation))
-					return new SourceFile(absoluteLocation, key);
-			}
+		// absolute paths are compared the way File.equals() would:
+		// case-insensitive on windows, as is on other systems
+		private static String absKey(String absPath) {
+			String path = new File(absPath).getPath();
+			if (File.separatorChar == '\\')
+				path = path.toLowerCase(Locale.ENGLISH);
+			return path;
+		}
+
+		/** @return absolute path of the file linked at aLocalPath, or null if it is not ours */
+		public synchronized String getAbsolutePath(String aLocalPath) {
+			return projectFiles.get(aLocalPath);
+		}
+
+		public synchronized SourceFile toSF(File absoluteLocation) throws ZamiaException {
+			Set<String> locals = absToLocal.get(absKey(absoluteLocation.getPath()));
+			if (locals != null && !locals.isEmpty())
+				return new SourceFile(absoluteLocation, locals.iterator().next());
 			throw new ZamiaException("Failed to locate " + absoluteLocation + " in the project");
 		}
 
 		/** Returns all links that refer the same absolute path as the argument */
-		public Set<IFile> getFiles(IFile local) {
+		public synchronized Set<IFile> getFiles(IFile local) {
 			SourceFile sf = ZamiaPlugin.getSourceFile(local);
 			Set<IFile> accumulator = new HashSet<IFile>();
-			for (String key : projectFiles.keySet()) {
-				String value = projectFiles.get(key);
-				if (value.equals(sf.getAbsolutePath()))
-					accumulator.add(project.getFile(key));
+			Set<String> locals = absToLocal.get(absKey(sf.getAbsolutePath()));
+			if (locals != null) {
+				for (String key : locals) {
+					IFile file = localToFile.get(key);
+					if (file == null) {
+						file = project.getFile(key);
+						localToFile.put(key, file);
+					}
+					accumulator.add(file);
+				}
 			}
 			return accumulator;
 		}
-		public File[] getFiles() throws IOException, ZamiaException {
+		public synchronized File[] getFiles() throws IOException, ZamiaException {
 			File[] result = new File[projectFiles.size()];
 			String[] s = projectFiles.values().toArray(new String[result.length]);
 			for (int i = 0 ; i != result.length ; i++)
@@ -119,18 +145,48 @@ public class ZamiaProjectMap {
 				
 		}
 
-		private void add(SourceFile sf) {
+		private synchronized void add(SourceFile sf) {
 			
 			if (sf.getLocalPath().endsWith("BuildPath.txt") ||
 					(
 					ZamiaProjectBuilder.fileNameAcceptable(sf.getLocalPath())  && // line name will satisfy user, referenced file 
 					ZamiaProjectBuilder.fileNameAcceptable(sf.getFileName())) // must have extension acceptable by compiler
-					)
-				projectFiles.put(sf.getLocalPath(), sf.getAbsolutePath());			
+					) {
+				String local = sf.getLocalPath();
+				String old = projectFiles.put(local, sf.getAbsolutePath());
+				if (old != null)
+					unindex(local, old);
+				
+				String key = absKey(sf.getAbsolutePath());
+				Set<String> locals = absToLocal.get(key);
+				if (locals == null) {
+					locals = new HashSet<String>(2);
+					absToLocal.put(key, locals);
+				}
+				locals.add(local);
+			}
+		}
+
+		private String remove(String local) {
+			String abs = projectFiles.remove(local);
+			if (abs != null)
+				unindex(local, abs);
+			return abs;
+		}
+
+		private void unindex(String local, String abs) {
+			String key = absKey(abs);
+			Set<String> locals = absToLocal.get(key);
+			if (locals != null) {
+				locals.remove(local);
+				if (locals.isEmpty())
+					absToLocal.remove(key);
+			}
+			localToFile.remove(local);
 		}
 		
 		//we are notified when files are added/removed. Sf is produced from delta resource.
-		public void listChanged(IResourceDelta aDelta, SourceFile sf) {
+		public synchronized void listChanged(IResourceDelta aDelta, SourceFile sf) {
 			switch (aDelta.getKind()) {
 			case IResourceDelta.ADDED:
 				add(sf); 
@@ -141,13 +197,13 @@ public class ZamiaProjectMap {
 				// delete ZDB errors using it. We must entail the projectFiles map and remove 
 				// errors when last link to resource is deleted.
 				
-				String abs = projectFiles.remove(sf.getLocalPath()); // local location must be ok
+				String abs = remove(sf.getLocalPath()); // local location must be ok
 
 				if (abs == null) // this is not our file -- forget it
 					return;
 				
 				//if no links to this file remains, clear file errors in Zamia
-				if (!projectFiles.values().contains(abs)) {
+				if (!absToLocal.containsKey(absKey(abs))) {
 					sf.setFile(new File(abs)); // fix the absolute location
 					getZamiaProject().getERM().removeErrors(sf);
 				}
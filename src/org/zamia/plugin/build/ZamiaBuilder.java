@@ -44,11 +44,15 @@ import org.zamia.ZamiaException;
 import org.zamia.ZamiaLogger;
 import org.zamia.ZamiaProject;
 import org.zamia.ZamiaProjectBuilder;
+import org.zamia.plugin.SignalIndex;
 import org.zamia.plugin.ZamiaPlugin;
 import org.zamia.plugin.ZamiaProjectMap;
+import org.zamia.plugin.editors.VHDLInformationProvider;
 import org.zamia.plugin.editors.ZamiaEditor;
+import org.zamia.plugin.editors.completion.VHDLCompletionProcessor;
 import org.zamia.plugin.efs.ZamiaFileSystem;
 import org.zamia.plugin.ui.XilinxPrjImportWizard;
+import org.zamia.plugin.views.navigator.ZamiaContentProvider;
 import org.zamia.plugin.views.navigator.ZamiaNavigator;
 import org.zamia.util.HashSetArray;
 import org.zamia.util.Native;
@@ -189,6 +193,10 @@ public class ZamiaBuilder extends IncrementalProjectBuilder {
 	protected void clean(IProgressMonitor monitor) throws CoreException {
 		try {
 			ZamiaProjectMap.getZamiaProject(getProject()).clean();
+			SignalIndex.invalidate(getProject());
+			VHDLInformationProvider.clearCache();
+			ZamiaContentProvider.invalidateChildren();
+			VHDLCompletionProcessor.invalidateIndices();
 		} catch (Exception e) {
 			throw new CoreException(new Status(Status.ERROR, ZamiaPlugin.PLUGIN_ID, "Failed to clean up the project. ", e));
 		}
@@ -297,14 +305,22 @@ public class ZamiaBuilder extends IncrementalProjectBuilder {
 
 		erm.setQuiet(true);
 
+		VHDLInformationProvider.buildStarted();
 		try {
 			builder.build(doFullBuild, fBPChanged, fChangedSFs);
 		} catch (Throwable e) {
 			el.logException(e);
+		} finally {
+			// also drops the declarations looked up while the build was running
+			VHDLInformationProvider.buildFinished();
 		}
 
 		erm.setQuiet(false);
 
+		SignalIndex.invalidate(project);
+		ZamiaContentProvider.invalidateChildren();
+		VHDLCompletionProcessor.invalidateIndices();
+
 		if (doFullBuild || fBPChanged) {
 			linkExternalSources(project, zprj, aMonitor);
 		}
@@ -8,6 +8,11 @@
  */
 package org.zamia.plugin.build;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -15,6 +20,9 @@ import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceVisitor;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -44,10 +52,112 @@ public class ZamiaErrorObserver implements ErrorObserver {
 
 	private static final ExceptionLogger el = ExceptionLogger.getInstance();
 
+	private static final long MARKER_JOB_DELAY = 200;
+
 	private IProject fProject;
 
+	// markers for errors reported one by one, created in batches by fMarkerJob
+	private final Map<IFile, Set<MarkerInfo>> fPendingMarkers = new HashMap<IFile, Set<MarkerInfo>>();
+
+	private final WorkspaceJob fMarkerJob;
+
+	// observer per project, so syncMarkers() can drop pending markers it has taken care of
+	private static final Map<IProject, ZamiaErrorObserver> fObservers = new HashMap<IProject, ZamiaErrorObserver>();
+
 	public ZamiaErrorObserver(IProject aProject) {
 		fProject = aProject;
+
+		synchronized (fObservers) {
+			fObservers.put(aProject, this);
+		}
+
+		fMarkerJob = new WorkspaceJob("Creating problem markers") {
+			@Override
+			public IStatus runInWorkspace(IProgressMonitor aMonitor) throws CoreException {
+
+				Map<IFile, Set<MarkerInfo>> markers;
+				synchronized (fPendingMarkers) {
+					markers = new HashMap<IFile, Set<MarkerInfo>>(fPendingMarkers);
+					fPendingMarkers.clear();
+				}
+
+				// syncMarkers() may have created some of them meanwhile
+				int nCreated = addMissingMarkers(markers);
+
+				logger.debug("ZamiaErrorObserver: %s: %d markers created", fProject, nCreated);
+
+				return Status.OK_STATUS;
+			}
+		};
+		fMarkerJob.setRule(ResourcesPlugin.getWorkspace().getRuleFactory().markerRule(aProject));
+		fMarkerJob.setSystem(true);
+	}
+
+	private static final String[] MARKER_ATTRIBUTES = { IMarker.MESSAGE, IMarker.SEVERITY, IMarker.LINE_NUMBER };
+
+	/**
+	 * The attributes of a problem marker we create, used to compare the
+	 * markers present in the workspace against the errors in the ERManager.
+	 */
+
+	static class MarkerInfo {
+
+		private final String fMessage;
+
+		private final int fSeverity;
+
+		private final int fLine;
+
+		public MarkerInfo(String aMessage, int aSeverity, int aLine) {
+			fMessage = aMessage;
+			fSeverity = aSeverity;
+			fLine = aLine < 1 ? 1 : aLine;
+		}
+
+		public static MarkerInfo fromError(ZamiaException aError, SourceLocation aLocation) {
+			return new MarkerInfo(aError.getMessage(), aError.isError() ? IMarker.SEVERITY_ERROR : IMarker.SEVERITY_WARNING, aLocation.fLine);
+		}
+
+		public static MarkerInfo fromMarker(IMarker aMarker) throws CoreException {
+			Object[] values = aMarker.getAttributes(MARKER_ATTRIBUTES);
+			String message = (String) values[0];
+			int severity = values[1] instanceof Integer ? (Integer) values[1] : -1;
+			int line = values[2] instanceof Integer ? (Integer) values[2] : -1;
+			return new MarkerInfo(message, severity, line);
+		}
+
+		public Object[] getAttributeValues() {
+			return new Object[] { fMessage, fSeverity, fLine };
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((fMessage == null) ? 0 : fMessage.hashCode());
+			result = prime * result + fSeverity;
+			result = prime * result + fLine;
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			MarkerInfo other = (MarkerInfo) obj;
+			if (fSeverity != other.fSeverity || fLine != other.fLine)
+				return false;
+			if (fMessage == null) {
+				if (other.fMessage != null)
+					return false;
+			} else if (!fMessage.equals(other.fMessage))
+				return false;
+			return true;
+		}
 	}
 
 	static class MarkDeleter implements IResourceVisitor {
@@ -86,25 +196,170 @@ public class ZamiaErrorObserver implements ErrorObserver {
 		deleteAllMarkers(fProject);
 	}
 
-	static void addMarker(IProject aProject, ZamiaException aError) {
-		SourceLocation location = aError.getLocation();
+	private static void collectMarker(Map<IFile, Set<MarkerInfo>> aMarkers, IFile aFile, MarkerInfo aInfo) {
+		for (IFile f : getLinkedFiles(aFile)) {
+			Set<MarkerInfo> infos = aMarkers.get(f);
+			if (infos == null) {
+				infos = new HashSet<MarkerInfo>();
+				aMarkers.put(f, infos);
+			}
+			infos.add(aInfo);
+		}
+	}
+
+	/**
+	 * Bring the problem markers on aScopes in line with aWanted: markers
+	 * already present are left alone, stale ones are deleted and missing ones
+	 * are created. All changes are done in a single workspace operation so
+	 * only one resource delta is fired.
+	 */
+
+	private static void syncMarkers(final IProject aProject, final IResource[] aScopes, final int aDepth, final Map<IFile, Set<MarkerInfo>> aWanted) {
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+
+		IWorkspaceRunnable runnable = new IWorkspaceRunnable() {
+
+			@Override
+			public void run(IProgressMonitor aMonitor) throws CoreException {
 
-		if (location != null && location.fSF != null) {
-			SourceFile sf = location.fSF;
+				int nDeleted = 0, nCreated = 0;
 
-			IFile file = ZamiaPlugin.getIFile(sf, aProject);
+				dropPendingMarkers(aProject, aWanted);
 
-			if (file != null) {
-				//addMarker(file, err.getMessage(), location.fLine, err.getCat() != ExCat.EXTERNAL ? IMarker.SEVERITY_ERROR : IMarker.SEVERITY_WARNING);
-				addMarker(file, aError.getMessage(), location.fLine, aError.isError() ? IMarker.SEVERITY_ERROR : IMarker.SEVERITY_WARNING);
+				// includes zamia's own problem subtypes, like deleteAllMarkers() does
+				ArrayList<IMarker> existing = new ArrayList<IMarker>();
+				for (IResource scope : aScopes) {
+					if (scope.exists()) {
+						existing.addAll(Arrays.asList(scope.findMarkers(IMarker.PROBLEM, true, aDepth)));
+					}
+				}
+
+				for (IMarker marker : existing) {
+
+					IResource res = marker.getResource();
+
+					Set<MarkerInfo> wanted = aWanted.get(res);
+
+					if (wanted != null && wanted.remove(MarkerInfo.fromMarker(marker))) {
+						continue;
+					}
+
+					marker.delete();
+					nDeleted++;
+				}
+
+				nCreated = createMarkers(aWanted);
+
+				logger.debug("ZamiaErrorObserver: syncMarkers() %s: %d markers deleted, %d created", aProject, nDeleted, nCreated);
 			}
+		};
+
+		try {
+			workspace.run(runnable, workspace.getRuleFactory().markerRule(aProject), IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			el.logException(e);
 		}
 	}
 	
+	/**
+	 * Pending markers that are in aWanted will be created by syncMarkers(),
+	 * so the marker job must not create them again.
+	 */
+
+	private static void dropPendingMarkers(IProject aProject, Map<IFile, Set<MarkerInfo>> aWanted) {
+
+		ZamiaErrorObserver observer;
+		synchronized (fObservers) {
+			observer = fObservers.get(aProject);
+		}
+		if (observer == null) {
+			return;
+		}
+
+		synchronized (observer.fPendingMarkers) {
+			for (Map.Entry<IFile, Set<MarkerInfo>> entry : aWanted.entrySet()) {
+				Set<MarkerInfo> pending = observer.fPendingMarkers.get(entry.getKey());
+				if (pending == null) {
+					continue;
+				}
+				pending.removeAll(entry.getValue());
+				if (pending.isEmpty()) {
+					observer.fPendingMarkers.remove(entry.getKey());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Create those markers of aMarkers that are not present yet, must be
+	 * called from within a workspace operation.
+	 * 
+	 * @return number of markers created
+	 */
+
+	private static int addMissingMarkers(Map<IFile, Set<MarkerInfo>> aMarkers) throws CoreException {
+
+		for (Map.Entry<IFile, Set<MarkerInfo>> entry : aMarkers.entrySet()) {
+			IFile file = entry.getKey();
+			if (!file.exists()) {
+				continue;
+			}
+			for (IMarker marker : file.findMarkers(IMarker.PROBLEM, true, IResource.DEPTH_ZERO)) {
+				entry.getValue().remove(MarkerInfo.fromMarker(marker));
+			}
+		}
+
+		return createMarkers(aMarkers);
+	}
+
+	/**
+	 * Must be called from within a workspace operation.
+	 * 
+	 * @return number of markers created
+	 */
+
+	private static int createMarkers(Map<IFile, Set<MarkerInfo>> aMarkers) throws CoreException {
+
+		int nCreated = 0;
+
+		for (Map.Entry<IFile, Set<MarkerInfo>> entry : aMarkers.entrySet()) {
+
+			IFile file = entry.getKey();
+			if (!file.exists()) {
+				continue;
+			}
+
+			for (MarkerInfo info : entry.getValue()) {
+				IMarker marker = file.createMarker(IMarker.PROBLEM);
+				marker.setAttributes(MARKER_ATTRIBUTES, info.getAttributeValues());
+				nCreated++;
+			}
+		}
+
+		return nCreated;
+	}
+
 	@Override
 	public void notifyErrorAdded(ZamiaProject aZPrj, ZamiaException aError) {
 		logger.debug("ZamiaErrorObserver: notifyErrorAdded() %s : %s", aZPrj, aError);
-		addMarker(fProject, aError);
+
+		SourceLocation location = aError.getLocation();
+		if (location == null || location.fSF == null) {
+			return;
+		}
+
+		IFile file = ZamiaPlugin.getIFile(location.fSF, fProject);
+		if (file == null) {
+			return;
+		}
+
+		synchronized (fPendingMarkers) {
+			collectMarker(fPendingMarkers, file, MarkerInfo.fromError(aError, location));
+		}
+
+		// errors reported in quick succession end up in one workspace operation
+		fMarkerJob.schedule(MARKER_JOB_DELAY);
 	}
 
 	@Override
@@ -116,19 +371,10 @@ public class ZamiaErrorObserver implements ErrorObserver {
 
 		if (file != null && file.exists()) { // file will not exist if it was renamed. By the time this called, errors are removed from ZDB. But, I do not know about eclipse markers, linked to the old file name. How to remove them?
 
-			new WorkspaceJob("Delete marker notification") {
-
-				@Override
-				public IStatus runInWorkspace(IProgressMonitor monitor) throws CoreException {
-					try {
-						file.deleteMarkers(null, true, IResource.DEPTH_ZERO);
-					} catch (CoreException e) {
-						el.logException(e);
-					}
-					return Status.OK_STATUS;
-				}
-				
-			}; 
+			Map<IFile, Set<MarkerInfo>> wanted = new HashMap<IFile, Set<MarkerInfo>>();
+			for (IFile f : getLinkedFiles(file)) {
+				wanted.put(f, new HashSet<MarkerInfo>());
+			}
 
 			ERManager erm = aZPrj.getERM();
 
@@ -141,25 +387,41 @@ public class ZamiaErrorObserver implements ErrorObserver {
 
 				if (location != null) {
 					//addMarker(file, err.getMessage(), location.fLine, err.getCat() != ExCat.EXTERNAL ? IMarker.SEVERITY_ERROR : IMarker.SEVERITY_WARNING);
-					addMarker(file, err.getMessage(), location.fLine, IMarker.SEVERITY_ERROR);
+					collectMarker(wanted, file, MarkerInfo.fromError(err, location));
 				}
 			}
+
+			syncMarkers(fProject, wanted.keySet().toArray(new IResource[wanted.size()]), IResource.DEPTH_ZERO, wanted);
 		}
 	}
 
 	public static void updateAllMarkers(ZamiaProject aZPrj) {
 		IProject prj = ZamiaProjectMap.getProject(aZPrj);
 
-		deleteAllMarkers(prj);
+		Map<IFile, Set<MarkerInfo>> wanted = new HashMap<IFile, Set<MarkerInfo>>();
 
 		ERManager erm = aZPrj.getERM();
 
 		int n = erm.getNumErrors();
 		for (int i = 0; i < n; i++) {
 			ZamiaException error = erm.getError(i);
-			logger.info("ZamiaErrorObserver: updating markers %3d/%3d: %s", i + 1, n, error);
-			addMarker(prj, error);
+
+			SourceLocation location = error.getLocation();
+			if (location == null || location.fSF == null) {
+				continue;
+			}
+
+			IFile file = ZamiaPlugin.getIFile(location.fSF, prj);
+			if (file == null) {
+				continue;
+			}
+
+			collectMarker(wanted, file, MarkerInfo.fromError(error, location));
 		}
+
+		logger.info("ZamiaErrorObserver: updating markers for %d errors in %d files", n, wanted.size());
+
+		syncMarkers(prj, new IResource[] { prj }, IResource.DEPTH_INFINITE, wanted);
 	}
 	
 	@Override
@@ -170,21 +432,7 @@ public class ZamiaErrorObserver implements ErrorObserver {
 		updateAllMarkers(aZPrj);
 	}
 
-	private static void addMarker(IFile aFile, String aMessage, int aLineNumber, int aSeverity) {
-		
-		for (IFile f : ((ZamiaProjectMap.EclipseProjectFileIterator)(ZamiaProjectMap.getZamiaProject(aFile.getProject()).fBasePath)).getFiles(aFile))
-		
-		try {
-			IMarker marker = f.createMarker(IMarker.PROBLEM);
-			// IMarker marker = file.createMarker(markerType_);
-			marker.setAttribute(IMarker.MESSAGE, aMessage);
-			marker.setAttribute(IMarker.SEVERITY, aSeverity);
-			if (aLineNumber < 1) {
-				aLineNumber = 1;
-			}
-			marker.setAttribute(IMarker.LINE_NUMBER, aLineNumber);
-		} catch (CoreException e) {
-			el.logException(e);
-		}
+	private static Set<IFile> getLinkedFiles(IFile aFile) {
+		return ((ZamiaProjectMap.EclipseProjectFileIterator)(ZamiaProjectMap.getZamiaProject(aFile.getProject()).fBasePath)).getFiles(aFile);
 	}
 }
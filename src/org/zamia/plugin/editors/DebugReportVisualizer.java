@@ -3,6 +3,8 @@ package org.zamia.plugin.editors;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.resources.IFile;
@@ -11,12 +13,18 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.editors.text.TextFileDocumentProvider;
+import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.zamia.SourceFile;
 import org.zamia.ZamiaLogger;
 import org.zamia.ZamiaProject;
@@ -46,6 +54,9 @@ public class DebugReportVisualizer {
 
 	private static HashMap<ZamiaProject, DebugReportVisualizer> fVisualizers;
 
+	// coverage annotations currently installed, per annotation model
+	private static final Map<IAnnotationModel, Annotation[]> fCoverageAnnotations = new WeakHashMap<IAnnotationModel, Annotation[]>();
+
 	private ZamiaEditor fEditor;
 
 	private Report fAssignments, fConditions;
@@ -114,12 +125,14 @@ public class DebugReportVisualizer {
 		addHitCountColumn(doCoverage);
 	}
 
+	/**
+	 * Coverage and static analysis results are shown through transient
+	 * annotations in the editor's annotation model (which share their types
+	 * and presentation with the corresponding marker types), so no workspace
+	 * markers are created for them.
+	 */
 	private void highlightText(boolean aDoCoverage, boolean aDoStaticAnalysis) {
 
-		IResource resource = fEditor.getResource();
-		if (resource == null)
-			return;
-
 		clearDeprecatedMarkers();
 
 		SourceFile file = fEditor.getSourceFile();
@@ -129,49 +142,92 @@ public class DebugReportVisualizer {
 			return;
 		}
 
+		IAnnotationModel model = getAnnotationModel(fEditor);
+		if (model == null)
+			return;
+
 		IGHitCountLogger coverageRanges = fSimulatedLines != null ? ((IGHitCountLogger) fSimulatedLines.getLogger(file)) : null;
 		IGHitCountLogger staticalRanges = fStaticalLines != null ? ((IGHitCountLogger) fStaticalLines.getLogger(file)) : null;
 
-		StyledText textWidget = fEditor.getTextWidget();
-		int nLines = textWidget.getLineCount();
+		IDocument document = fEditor.getDocument();
+		HashMap<Annotation, Position> annotations = new HashMap<Annotation, Position>();
+
+		int nLines = document.getNumberOfLines();
 		for (int i = 0; i < nLines; i++) {
 			int adjustedLine = i + 1;
 			boolean dynamic = aDoCoverage && coverageRanges != null && coverageRanges.hasHitsAt(adjustedLine);
 			boolean statical = aDoStaticAnalysis && staticalRanges != null && staticalRanges.hasHitsAt(adjustedLine);
 
-			String markerType;
+			String annotationType;
 			String message;
 			if (dynamic) {
 				if (statical) {
-					markerType = BUG.id;
+					annotationType = BUG.id;
 					message = "A bug is probably located here";
 				} else {
-					markerType = SIMULATED_LINE.id;
+					annotationType = SIMULATED_LINE.id;
 					message = "This line was executed " + coverageRanges.getHitsAt(adjustedLine) + " times during current simulation run";
 				}
 			} else {
 				if (statical) {
-					markerType = STATIC_LINE.id;
+					annotationType = STATIC_LINE.id;
 					message = "Through-signal reference search result";
 				} else {
 					continue;
 				}
 			}
 
-			int off = textWidget.getOffsetAtLine(i);
-			int length = textWidget.getLine(i).length();
-
-			createInfoMarker(markerType, message, i, off, length, resource);
+			try {
+				IRegion line = document.getLineInformation(i);
+				annotations.put(new Annotation(annotationType, false, message), new Position(line.getOffset(), line.getLength()));
+			} catch (BadLocationException e) {
+				logger.debug("DebugReportVisualizer: failed to obtain line offset: %s", e.getMessage());
+			}
 		}
+
+		replaceCoverageAnnotations(model, annotations);
 	}
 
 	private void clearDeprecatedMarkers() {
-		try {
-			deleteMarkers(SIMULATED_LINE.id);
-			deleteMarkers(STATIC_LINE.id);
-			deleteMarkers(BUG.id);
-		} catch (CoreException e) {
-			logger.debug("DebugReportVisualizer: failed to delete debug markers", e);
+		IAnnotationModel model = getAnnotationModel(fEditor);
+		if (model != null) {
+			replaceCoverageAnnotations(model, null);
+		}
+	}
+
+	private static IAnnotationModel getAnnotationModel(ZamiaEditor aEditor) {
+		IDocumentProvider provider = aEditor.getDocumentProvider();
+		IAnnotationModel model = provider != null ? provider.getAnnotationModel(aEditor.getEditorInput()) : null;
+		if (model == null && aEditor.getMySourceViewer() != null) {
+			model = aEditor.getMySourceViewer().getAnnotationModel();
+		}
+		return model;
+	}
+
+	private static void replaceCoverageAnnotations(IAnnotationModel aModel, Map<Annotation, Position> aAnnotations) {
+
+		synchronized (fCoverageAnnotations) {
+
+			Annotation[] old = fCoverageAnnotations.remove(aModel);
+
+			if (aModel instanceof IAnnotationModelExtension) {
+				((IAnnotationModelExtension) aModel).replaceAnnotations(old, aAnnotations);
+			} else {
+				if (old != null) {
+					for (Annotation annotation : old) {
+						aModel.removeAnnotation(annotation);
+					}
+				}
+				if (aAnnotations != null) {
+					for (Map.Entry<Annotation, Position> entry : aAnnotations.entrySet()) {
+						aModel.addAnnotation(entry.getKey(), entry.getValue());
+					}
+				}
+			}
+
+			if (aAnnotations != null && !aAnnotations.isEmpty()) {
+				fCoverageAnnotations.put(aModel, aAnnotations.keySet().toArray(new Annotation[aAnnotations.size()]));
+			}
 		}
 	}
 
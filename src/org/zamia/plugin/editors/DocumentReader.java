@@ -30,12 +30,26 @@ public class DocumentReader extends Reader {
 	
 	@Override
 	public int read(char[] cbuf_, int off_, int len_) throws IOException {
+		if (len_ == 0) {
+			return 0;
+		}
+
+		int n = doc.getLength() - off;
+		if (n <= 0) {
+			return -1;
+		}
+		if (n > len_) {
+			n = len_;
+		}
+
+		// copy a whole chunk instead of calling getChar() per character
 		try {
-			cbuf_[off_] = doc.getChar(off++);
+			doc.get(off, n).getChars(0, n, cbuf_, off_);
 		} catch (BadLocationException e) {
 			return -1;
 		}
-		return 1;
+		off += n;
+		return n;
 	}
 
 	@Override
@@ -8,7 +8,6 @@
 
 package org.zamia.plugin.editors;
 
-import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
@@ -25,8 +24,6 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.editors.text.FileDocumentProvider;
 import org.eclipse.ui.ide.IDE;
 import org.zamia.ASTNode;
-import org.zamia.FSCache;
-import org.zamia.SourceFile;
 import org.zamia.SourceLocation;
 import org.zamia.ToplevelPath;
 import org.zamia.ZamiaException;
@@ -169,23 +166,10 @@ public class OpenDeclarationAction extends StaticAnalysisAction {
 			// signal S1, S2: type; creates two declarations on the same line and 
 			// diff column. Both share the same comment
 			
-			//Do we need to cache this (possibly we shouldn't open and load the file every while hovering the mouse)?
-			SourceFile sf = fLocation.fSF;
-			String uri = sf.getURI();
-			BufferedReader br = new BufferedReader(FSCache.getInstance().openFile(sf, false));
-			try {
-				String s; int l = 0;
-				while ((s = br.readLine()) != null) {
-					if (l++ == line) {
-//						IRegion reg = document.getLineInformation(line);
-//						String s = document.get(reg.getOffset(), reg.getLength());
-						int commentStart = s.indexOf("--");
-						return commentStart != -1 ? s.substring(commentStart + 2).trim(): null; 
-					}
-					
-				}
-			} finally {
-				br.close();
+			String s = SourceLineIndex.getIndex(fLocation.fSF).getLine(line);
+			if (s != null) {
+				int commentStart = s.indexOf("--");
+				return commentStart != -1 ? s.substring(commentStart + 2).trim(): null; 
 			}
 		
 			return null;
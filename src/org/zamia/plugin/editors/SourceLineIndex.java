@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+
+package org.zamia.plugin.editors;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.zamia.FSCache;
+import org.zamia.SourceFile;
+
+
+/**
+ * Contents and line start offsets of a source file, so single lines can be
+ * looked up without re-reading the file.
+ *
+ * A small number of recently used files is kept, entries of local files are
+ * dropped as soon as the file's size or modification time changes. Files
+ * without a local path (e.g. inside archives) have no such stamp, their
+ * entries are re-read after UNSTAMPED_TTL ms.
+ */
+
+public class SourceLineIndex {
+
+	private static final int MAX_CACHED_FILES = 16;
+
+	private static final long UNSTAMPED_TTL = 5000; // milliseconds
+
+	private static final long NO_STAMP = -1;
+
+	private static final Map<String, SourceLineIndex> fCache = new LinkedHashMap<String, SourceLineIndex>(MAX_CACHED_FILES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SourceLineIndex> aEldest) {
+			return size() > MAX_CACHED_FILES;
+		}
+	};
+
+	private final String fContents;
+
+	// offset of the first character of each line
+	private final int[] fLineStarts;
+
+	private final int fNumLines;
+
+	private final long fStamp;
+
+	private final long fCreated = System.currentTimeMillis();
+
+	private SourceLineIndex(String aContents, long aStamp) {
+		fContents = aContents;
+		fStamp = aStamp;
+
+		int lineStarts[] = new int[256];
+		int n = 0;
+		lineStarts[n++] = 0;
+		int len = aContents.length();
+		for (int i = 0; i < len; i++) {
+			char c = aContents.charAt(i);
+			if (c == '\n' || (c == '\r' && (i + 1 >= len || aContents.charAt(i + 1) != '\n'))) {
+				if (n == lineStarts.length) {
+					lineStarts = Arrays.copyOf(lineStarts, n * 2);
+				}
+				lineStarts[n++] = i + 1;
+			}
+		}
+		fLineStarts = lineStarts;
+		fNumLines = n;
+	}
+
+	/**
+	 * @param aLine
+	 *            0-based line number
+	 * @return the line without line terminator, null if aLine is out of range
+	 */
+
+	public String getLine(int aLine) {
+		if (aLine < 0 || aLine >= fNumLines) {
+			return null;
+		}
+		int start = fLineStarts[aLine];
+		int end = aLine + 1 < fNumLines ? fLineStarts[aLine + 1] : fContents.length();
+		while (end > start && (fContents.charAt(end - 1) == '\n' || fContents.charAt(end - 1) == '\r')) {
+			end--;
+		}
+		return fContents.substring(start, end);
+	}
+
+	public int getNumLines() {
+		return fNumLines;
+	}
+
+	public static SourceLineIndex getIndex(SourceFile aSF) throws IOException {
+
+		String key = aSF.getURI();
+		long stamp = computeStamp(aSF);
+
+		synchronized (fCache) {
+			SourceLineIndex idx = fCache.get(key);
+			if (idx != null && idx.isValid(stamp)) {
+				return idx;
+			}
+		}
+
+		StringBuilder buf = new StringBuilder();
+		Reader reader = FSCache.getInstance().openFile(aSF, false);
+		try {
+			char chunk[] = new char[8192];
+			int n;
+			while ((n = reader.read(chunk)) >= 0) {
+				buf.append(chunk, 0, n);
+			}
+		} finally {
+			reader.close();
+		}
+
+		SourceLineIndex idx = new SourceLineIndex(buf.toString(), stamp);
+
+		synchronized (fCache) {
+			fCache.put(key, idx);
+		}
+
+		return idx;
+	}
+
+	private boolean isValid(long aStamp) {
+		if (aStamp == NO_STAMP) {
+			return fStamp == NO_STAMP && System.currentTimeMillis() - fCreated < UNSTAMPED_TTL;
+		}
+		return fStamp == aStamp;
+	}
+
+	public static void clearCache() {
+		synchronized (fCache) {
+			fCache.clear();
+		}
+	}
+
+	private static long computeStamp(SourceFile aSF) {
+		String path = aSF.getAbsolutePath();
+		if (path == null) {
+			return NO_STAMP;
+		}
+		File f = new File(path);
+		if (!f.exists()) {
+			return NO_STAMP;
+		}
+		return (f.lastModified() * 31 + f.length()) & Long.MAX_VALUE;
+	}
+}
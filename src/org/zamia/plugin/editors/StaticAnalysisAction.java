@@ -108,10 +108,6 @@ public abstract class StaticAnalysisAction implements IEditorActionDelegate {
 			line++;
 			col++;
 
-			if (fEditor.isAnnotated()) {
-				line /=2;
-			}
-			
 			logger.debug("Line: " + line + ", col: " + col);
 
 			fZPrj = ZamiaProjectMap.getZamiaProject(fPrj);
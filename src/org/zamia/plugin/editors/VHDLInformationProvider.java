@@ -9,6 +9,8 @@
 package org.zamia.plugin.editors;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -16,6 +18,7 @@ import org.eclipse.jface.internal.text.html.HTMLTextPresenter;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.DefaultInformationControl;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.jface.text.IInformationControl;
 import org.eclipse.jface.text.IInformationControlCreator;
 import org.eclipse.jface.text.IRegion;
@@ -116,15 +119,140 @@ ITextHover, ITextHoverExtension {
 	
 	public static LocatedDeclaration findDeclaration(int offset) {
 		try {
+			DeclarationKey key = getDeclarationKey(offset);
+			int generation = 0;
+			if (key != null) {
+				synchronized (fDeclarationCache) {
+					if (fDeclarationCache.containsKey(key)) {
+						return fDeclarationCache.get(key);
+					}
+					generation = fGeneration;
+				}
+			}
+
   			OpenDeclarationAction oda = new OpenDeclarationAction();
 			oda.processSelection(offset);
-			return oda.findDeclaration();
+			LocatedDeclaration ld = oda.findDeclaration();
+
+			if (key != null) {
+				synchronized (fDeclarationCache) {
+					// nothing found during a build may just not have been built yet,
+					// anything found before the cache was cleared may be outdated
+					if ((ld != null || fNumBuilds == 0) && generation == fGeneration) {
+						fDeclarationCache.put(key, ld);
+					}
+				}
+			}
+			return ld;
   		} catch (BadLocationException e) {
   			el.logException(e);
   		}
 		return null;
 	}
 
+	/**
+	 * Drop all cached declarations (and source lines), called whenever a
+	 * project is cleaned.
+	 */
+	public static void clearCache() {
+		synchronized (fDeclarationCache) {
+			fGeneration++;
+			fDeclarationCache.clear();
+		}
+		SourceLineIndex.clearCache();
+	}
+
+	/**
+	 * While a build is running, lookups that find nothing are not cached.
+	 */
+	public static void buildStarted() {
+		synchronized (fDeclarationCache) {
+			fNumBuilds++;
+		}
+	}
+
+	/**
+	 * Called when a build has completed, drops everything cached so far.
+	 */
+	public static void buildFinished() {
+		synchronized (fDeclarationCache) {
+			fNumBuilds--;
+		}
+		clearCache();
+	}
+
+	/*
+	 * resolved declarations are cached per (editor input, identifier, document
+	 * version) so hovering the same identifier again does not have to search
+	 * the IG/AST again
+	 */
+
+	private static final int MAX_CACHED_DECLARATIONS = 256;
+
+	// guarded by fDeclarationCache
+	private static int fGeneration = 0;
+
+	private static int fNumBuilds = 0;
+
+	private static final Map<DeclarationKey, LocatedDeclaration> fDeclarationCache = new LinkedHashMap<DeclarationKey, LocatedDeclaration>(MAX_CACHED_DECLARATIONS, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<DeclarationKey, LocatedDeclaration> aEldest) {
+			return size() > MAX_CACHED_DECLARATIONS;
+		}
+	};
+
+	private static class DeclarationKey {
+		private final IEditorInput fInput;
+		private final int fOffset;
+		private final long fStamp;
+
+		DeclarationKey(IEditorInput aInput, int aOffset, long aStamp) {
+			fInput = aInput;
+			fOffset = aOffset;
+			fStamp = aStamp;
+		}
+
+		@Override
+		public boolean equals(Object aObj) {
+			if (!(aObj instanceof DeclarationKey)) {
+				return false;
+			}
+			DeclarationKey key = (DeclarationKey) aObj;
+			return fInput.equals(key.fInput) && fOffset == key.fOffset && fStamp == key.fStamp;
+		}
+
+		@Override
+		public int hashCode() {
+			return fInput.hashCode() * 31 + fOffset + (int) (fStamp ^ (fStamp >>> 32));
+		}
+	}
+
+	private static DeclarationKey getDeclarationKey(int aOffset) {
+		ZamiaEditor editor = StaticAnalysisAction.fEditor;
+		if (editor == null) {
+			return null;
+		}
+		IEditorInput input = editor.getEditorInput();
+		IDocument doc = editor.getDocument();
+		if (input == null || !(doc instanceof IDocumentExtension4)) {
+			return null;
+		}
+		long stamp = ((IDocumentExtension4) doc).getModificationStamp();
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP) {
+			return null;
+		}
+		// all offsets inside an identifier resolve to the same declaration
+		int offset = aOffset;
+		try {
+			offset = senseIdentifierRange(doc, aOffset).getOffset();
+		} catch (BadLocationException e) {
+			// probably hit EOF
+		}
+		return new DeclarationKey(input, offset, stamp);
+	}
+
 	public IInformationControlCreator getInformationPresenterControlCreator() {
 		return getHoverControlCreator();
 	}
@@ -24,7 +24,6 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.ITextSelection;
 import org.eclipse.jface.text.PaintManager;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.rules.ITokenScanner;
@@ -61,10 +60,11 @@ import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 import org.eclipse.ui.IEditorSite;
+import org.eclipse.ui.IPartListener2;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchPart;
+import org.eclipse.ui.IWorkbenchPartReference;
 import org.eclipse.ui.PartInitException;
-import org.eclipse.ui.editors.text.TextEditor;
 import org.eclipse.ui.ide.ResourceUtil;
 import org.eclipse.ui.navigator.resources.ProjectExplorer;
 import org.eclipse.ui.part.FileEditorInput;
@@ -92,7 +92,7 @@ import org.zamia.instgraph.sim.annotations.IGSimAnnotation;
 import org.zamia.instgraph.sim.annotations.IGSimAnnotator;
 import org.zamia.plugin.ZamiaPlugin;
 import org.zamia.plugin.ZamiaProjectMap;
-import org.zamia.plugin.editors.annotations.AnnotatedDocument;
+import org.zamia.plugin.editors.annotations.SimValuePainter;
 import org.zamia.plugin.views.sim.SimulatorView;
 import org.zamia.util.HashSetArray;
 import org.zamia.util.PathName;
@@ -144,16 +144,23 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 
 	private Button fAnnotateUpdate;
 
-	private int fCaretPos;
+	private volatile boolean fIsAnnotating;
 
-	private int fLine;
+	// set if annotate() was called while a job was still running
+	private volatile boolean fAnnotatePending;
 
-	private int fCol;
+	private SimValuePainter fValuePainter;
 
-	private boolean fIsAnnotating;
+	// incremented when the annotation is removed, annotate jobs started before drop their values
+	private int fAnnotationGeneration = 0;
 
 	private boolean fIsAnnotated = false;
 
+	// the simulator's cursor moved while the editor was hidden
+	private boolean fAnnotationStale = false;
+
+	private IPartListener2 fPartListener;
+
 	private HashSetArray<IGSimAnnotation> fAnns;
 
 	private ZamiaProject fZPrj;
@@ -372,6 +379,40 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 		editorContainer.setLayout(fl);
 		super.createPartControl(editorContainer);
 
+		fPartListener = new IPartListener2() {
+
+			public void partVisible(IWorkbenchPartReference aPartRef) {
+				if (aPartRef.getPart(false) == ZamiaEditor.this && fAnnotationStale) {
+					fAnnotationStale = false;
+					if (fIsAnnotated) {
+						updateAnnotation();
+					}
+				}
+			}
+
+			public void partActivated(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partBroughtToTop(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partClosed(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partDeactivated(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partOpened(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partHidden(IWorkbenchPartReference aPartRef) {
+			}
+
+			public void partInputChanged(IWorkbenchPartReference aPartRef) {
+			}
+		};
+		getSite().getPage().addPartListener(fPartListener);
+
 		ProjectionViewer viewer = (ProjectionViewer) getSourceViewer();
 		fProjectionSupport = new ProjectionSupport(viewer, getAnnotationAccess(), getSharedColors());
 		fProjectionSupport.addSummarizableAnnotationType("org.eclipse.ui.workbench.texteditor.error");
@@ -545,6 +586,15 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 	 * 
 	 */
 	public void dispose() {
+		if (fPartListener != null) {
+			getSite().getPage().removePartListener(fPartListener);
+			fPartListener = null;
+		}
+		fAnnotationGeneration++;
+		if (fValuePainter != null) {
+			fValuePainter.clear();
+			fValuePainter = null;
+		}
 		if (fOutlinePage != null && !fOutlinePage.isDisposed()) {
 			fOutlinePage.dispose();
 			fOutlinePage = null;
@@ -592,9 +642,6 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 				try {
 					
 					int line = location.fLine;
-					if (isAnnotated()) {
-						line *= 2;
-					}
 					line--;
 					
 					int offset = getDocument().getLineOffset(line) + location.fCol - 1;
@@ -716,6 +763,11 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 		return fSim;
 	}
 
+	/**
+	 * Show the signal values at the simulator's cursor time next to the source
+	 * lines. The values are painted on top of the text widget, the document
+	 * stays as it is.
+	 */
 	public void annotate() throws ZamiaException {
 
 		logger.info("ZamiaEditor: annotate() start...");
@@ -726,27 +778,13 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 		}
 
 		if (fIsAnnotating) {
-			logger.error("ZamiaEditor: I am currently busy annotating, ignoring new annotate job.");
+			// pick up the latest cursor time once the running job is done
+			fAnnotatePending = true;
 			return;
 		}
 
 		fIsAnnotating = true;
-
-		final IDocument originalDocument = getDocument();
-
-		/*
-		 *  remember cursor position
-		 */
-
-		computeCursorPos(originalDocument);
-
-		final ISourceViewer viewer = getSourceViewer();
-
-		fLine *= 2;
-		fLine++;
-
-		SourceViewerConfiguration cfg = getSourceViewerConfiguration();
-		final int tabWidth = cfg.getTabWidth(viewer);
+		fAnnotatePending = false;
 
 		fZPrj = fReconcilingStrategy.getZPrj();
 
@@ -757,50 +795,71 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 			return;
 		}
 
+		final BigInteger cursorTime = fSimView.getCursorTime();
+
+		final int generation = fAnnotationGeneration;
+
 		Job job = new Job("Annotate source code") {
 
 			@Override
 			protected IStatus run(IProgressMonitor aMonitor) {
 
-				IGSimAnnotator annotator = new IGSimAnnotator(fZPrj);
+				try {
+					IGSimAnnotator annotator = new IGSimAnnotator(fZPrj);
 
-				BigInteger cursorTime = fSimView.getCursorTime();
+					if (!annotator.genAnnotationsEnv(fSF, getPath(), fSim, cursorTime)) {
+						logger.error("ZamiaEditor: annotation: genAnnotationsEnv() failed.");
+						return Status.OK_STATUS;
+					}
 
-				if (!annotator.genAnnotationsEnv(fSF, getPath(), fSim, cursorTime)) {
-					logger.error("ZamiaEditor: annotation: genAnnotationsEnv() failed.");
-					fIsAnnotating = false;
-					return Status.OK_STATUS;
-				}
+					if (aMonitor != null && aMonitor.isCanceled()) {
+						return Status.OK_STATUS;
+					}
 
-				if (aMonitor != null && aMonitor.isCanceled()) {
-					fIsAnnotating = false;
-					return Status.OK_STATUS;
-				}
+					final HashSetArray<IGSimAnnotation> anns = annotator.genAnnotations();
 
-				fAnns = annotator.genAnnotations();
+					Display.getDefault().syncExec(new Runnable() {
 
-				logger.info("ZamiaEditor: generating annotated document...");
+						public void run() {
+							if (getSourceViewer() == null) {
+								// editor has been closed meanwhile
+								return;
+							}
+							if (generation != fAnnotationGeneration) {
+								// annotation has been removed meanwhile, the editor may be edited again
+								fIsAnnotating = false;
+								updateState(getEditorInput());
+								return;
+							}
 
-				Display.getDefault().syncExec(new Runnable() {
+							fAnns = anns;
 
-					public void run() {
-						AnnotatedDocument annotatedDoc = new AnnotatedDocument(originalDocument.get(), fAnns, tabWidth, fSimView);
+							getValuePainter().setAnnotations(fAnns, fSimView);
 
-						viewer.setDocument(annotatedDoc);
+							fIsAnnotated = true;
 
-						fAnnotateUpdate.setEnabled(true);
+							fAnnotateUpdate.setEnabled(true);
+							fAnnotateCheck.setEnabled(true);
+							fAnnotateCheck.setSelection(true);
+						}
+					});
 
-						setCursor(annotatedDoc, ZamiaEditor.this);
+					logger.info("ZamiaEditor: annotate(): done.");
 
-						fAnnotateCheck.setEnabled(true);
-						fAnnotateCheck.setSelection(true);
-					}
-				});
+				} finally {
+					fIsAnnotating = false;
+				}
 
-				logger.info("ZamiaEditor: annotate(): done.");
+				if (fAnnotatePending) {
+					Display.getDefault().asyncExec(new Runnable() {
+						public void run() {
+							if (fIsAnnotated) {
+								updateAnnotation();
+							}
+						}
+					});
+				}
 
-				fIsAnnotating = false;
-				fIsAnnotated = true;
 				return Status.OK_STATUS;
 			}
 
@@ -814,81 +873,59 @@ public class ZamiaEditor extends ErrorMarkEditor implements IShowInTargetList {
 		
 	}
 
-	private void computeCursorPos(IDocument originalDocument) {
-		ITextSelection selection = (ITextSelection) getSelectionProvider().getSelection();
-		fCaretPos = selection.getOffset();
-		fLine = 0;
-		try {
-			fLine = originalDocument.getLineOfOffset(fCaretPos);
-		} catch (BadLocationException e1) {
-			el.logException(e1);
-		}
-		fCol = 0;
-		try {
-			fCol = fCaretPos - originalDocument.getLineOffset(fLine);
-			if (fCol < 0) {
-				fCol = 0;
-			}
-		} catch (BadLocationException e1) {
-			el.logException(e1);
-		}
-	}
-
 	public boolean isAnnotated() {
 		return fIsAnnotated;
 	}
 
-	private void updateAnnotation() {
-		ToplevelPath path = getPath();
-
-		if (path != null) {
-
-			IDocument doc = getDocument();
-
-			computeCursorPos(doc);
-			fLine = fLine / 2;
-
-			getSite().getPage().closeEditor(this, false);
-			ZamiaEditor editor = (ZamiaEditor) ZamiaPlugin.showSource(getSite().getPage(), fZPrj, path);
-
-			setCursor(editor.getDocument(), editor);
+	/**
+	 * The simulator's cursor moved. Annotating evaluates the whole file, so
+	 * hidden editors only re-read their values once they become visible.
+	 */
+	public void cursorMoved() {
+		if (getSite().getPage().isPartVisible(this)) {
+			updateAnnotation();
+		} else {
+			fAnnotationStale = true;
+		}
+	}
 
-			try {
-				editor.annotate();
-			} catch (ZamiaException e) {
-				el.logZamiaException(e);
-			}
+	/**
+	 * Re-read the values for the simulator's current cursor time.
+	 */
+	public void updateAnnotation() {
+		if (getPath() == null) {
+			return;
+		}
+		try {
+			annotate();
+		} catch (ZamiaException e) {
+			el.logZamiaException(e);
 		}
 	}
 
 	private void removeAnnotation() {
 
-		ToplevelPath path = getPath();
-
-		if (path != null) {
+		fAnnotationGeneration++;
+		fAnnotatePending = false;
+		fAnnotationStale = false;
+		fIsAnnotated = false;
+		fAnns = null;
 
-			IDocument doc = getDocument();
-
-			computeCursorPos(doc);
-
-			fLine = fLine / 2;
+		if (fValuePainter != null) {
+			fValuePainter.clear();
+		}
 
-			getSite().getPage().closeEditor(this, false);
-			ZamiaEditor editor = (ZamiaEditor) ZamiaPlugin.showSource(getSite().getPage(), fZPrj, path);
+		fAnnotateUpdate.setEnabled(false);
 
-			setCursor(editor.getDocument(), editor);
-		}
-		
+		//refresh editable state
+		updateState(getEditorInput());
 	}
 
-	private void setCursor(IDocument document, TextEditor editor) {
-		try {
-			fCaretPos = document.getLineOffset(fLine) + fCol;
-		} catch (BadLocationException e) {
-			el.logException(e);
+	private SimValuePainter getValuePainter() {
+		if (fValuePainter == null) {
+			fValuePainter = new SimValuePainter(getSourceViewer());
 		}
-
-		editor.selectAndReveal(fCaretPos, 0);
+		return fValuePainter;
 	}
 
 	public ToplevelPath getPath() {
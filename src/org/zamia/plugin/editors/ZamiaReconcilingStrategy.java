@@ -55,6 +55,9 @@ public class ZamiaReconcilingStrategy implements IReconcilingStrategy {
 
 	private DMManager fDUM;
 
+	// incremented on every compile, lets clients drop data derived from the old AST
+	private volatile int fCompileCount = 0;
+
 	//	private ArrayList<Position> fPositions;
 
 	public ZamiaReconcilingStrategy(ZamiaEditor aEditor) {
@@ -109,6 +112,8 @@ public class ZamiaReconcilingStrategy implements IReconcilingStrategy {
 
 				fSFDUInfo = fDUM.compileFile(sf, dr);
 
+				fCompileCount++;
+
 				//calculateFoldingPositions();
 			} else {
 				//				fPositions = new ArrayList<Position>();
@@ -561,4 +566,8 @@ public class ZamiaReconcilingStrategy implements IReconcilingStrategy {
 	public ZamiaProject getZPrj() {
 		return fZPrj;
 	}
+
+	public int getCompileCount() {
+		return fCompileCount;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.editors.annotations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import org.eclipse.jface.preference.PreferenceConverter;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension5;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.events.PaintEvent;
+import org.eclipse.swt.events.PaintListener;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.zamia.ExceptionLogger;
+import org.zamia.ZamiaLogger;
+import org.zamia.instgraph.sim.annotations.IGSimAnnotation;
+import org.zamia.plugin.ZamiaPlugin;
+import org.zamia.plugin.editors.ColorManager;
+import org.zamia.plugin.preferences.PreferenceConstants;
+import org.zamia.plugin.views.sim.SimulatorView;
+import org.zamia.util.HashSetArray;
+
+
+/**
+ * Paints simulation values behind the end of the source lines they belong
+ * to, the document itself is left untouched.
+ *
+ * Values are only formatted for lines that actually get painted, the
+ * formatted strings are kept until the next set of values arrives.
+ */
+
+public class SimValuePainter implements PaintListener {
+
+	public final static ZamiaLogger logger = ZamiaLogger.getInstance();
+
+	public final static ExceptionLogger el = ExceptionLogger.getInstance();
+
+	private static final int GAP = 16;
+
+	private final ITextViewer fViewer;
+
+	private final Color fColor;
+
+	// annotations per (1-based) source line, sorted by column
+	private HashMap<Integer, ArrayList<IGSimAnnotation>> fAnnotations = new HashMap<Integer, ArrayList<IGSimAnnotation>>();
+
+	private HashMap<Integer, String> fFormatted = new HashMap<Integer, String>();
+
+	private SimulatorView fSimView;
+
+	private boolean fInstalled = false;
+
+	public SimValuePainter(ITextViewer aViewer) {
+		fViewer = aViewer;
+		fColor = ColorManager.getInstance().getColor(PreferenceConverter.getColor(ZamiaPlugin.getDefault().getPreferenceStore(), PreferenceConstants.P_COMMENT));
+	}
+
+	/**
+	 * Replace the values shown, must be called from the UI thread.
+	 */
+
+	public void setAnnotations(HashSetArray<IGSimAnnotation> aAnns, SimulatorView aSimView) {
+
+		HashMap<Integer, ArrayList<IGSimAnnotation>> annotations = new HashMap<Integer, ArrayList<IGSimAnnotation>>();
+
+		int n = aAnns.size();
+		for (int i = 0; i < n; i++) {
+			IGSimAnnotation ann = aAnns.get(i);
+
+			int line = ann.getLocation().fLine;
+
+			ArrayList<IGSimAnnotation> al = annotations.get(line);
+			if (al == null) {
+				al = new ArrayList<IGSimAnnotation>(1);
+				annotations.put(line, al);
+			}
+			al.add(ann);
+		}
+
+		Comparator<IGSimAnnotation> byCol = new Comparator<IGSimAnnotation>() {
+			public int compare(IGSimAnnotation aA1, IGSimAnnotation aA2) {
+				return aA1.getLocation().fCol - aA2.getLocation().fCol;
+			}
+		};
+		for (ArrayList<IGSimAnnotation> al : annotations.values()) {
+			Collections.sort(al, byCol);
+		}
+
+		fAnnotations = annotations;
+		fFormatted = new HashMap<Integer, String>();
+		fSimView = aSimView;
+
+		StyledText widget = fViewer.getTextWidget();
+		if (widget == null || widget.isDisposed()) {
+			return;
+		}
+		if (!fInstalled) {
+			widget.addPaintListener(this);
+			fInstalled = true;
+		}
+		widget.redraw();
+	}
+
+	public void clear() {
+		fAnnotations = new HashMap<Integer, ArrayList<IGSimAnnotation>>();
+		fFormatted = new HashMap<Integer, String>();
+		fSimView = null;
+
+		StyledText widget = fViewer.getTextWidget();
+		if (widget == null || widget.isDisposed()) {
+			return;
+		}
+		if (fInstalled) {
+			widget.removePaintListener(this);
+			fInstalled = false;
+		}
+		widget.redraw();
+	}
+
+	public void paintControl(PaintEvent aEvent) {
+
+		if (fAnnotations.isEmpty()) {
+			return;
+		}
+
+		StyledText widget = fViewer.getTextWidget();
+		GC gc = aEvent.gc;
+
+		Rectangle clientArea = widget.getClientArea();
+
+		int nLines = widget.getLineCount();
+		int first = widget.getLineIndex(Math.max(aEvent.y, 0));
+		int last = widget.getLineIndex(Math.min(aEvent.y + aEvent.height, clientArea.height));
+
+		gc.setForeground(fColor);
+
+		for (int wl = first; wl <= last && wl < nLines; wl++) {
+
+			int line = widgetLine2ModelLine(wl);
+			if (line < 0) {
+				continue;
+			}
+
+			String str = getText(line + 1);
+			if (str == null) {
+				continue;
+			}
+
+			int offset = widget.getOffsetAtLine(wl) + widget.getLine(wl).length();
+			Point p = widget.getLocationAtOffset(offset);
+
+			gc.drawString(str, p.x + GAP, p.y, true);
+		}
+	}
+
+	private int widgetLine2ModelLine(int aWidgetLine) {
+		if (fViewer instanceof ITextViewerExtension5) {
+			return ((ITextViewerExtension5) fViewer).widgetLine2ModelLine(aWidgetLine);
+		}
+		return aWidgetLine;
+	}
+
+	private String getText(int aLine) {
+
+		String str = fFormatted.get(aLine);
+		if (str != null) {
+			return str;
+		}
+
+		ArrayList<IGSimAnnotation> al = fAnnotations.get(aLine);
+		if (al == null) {
+			return null;
+		}
+
+		StringBuilder buf = new StringBuilder("-- ");
+		for (int i = 0; i < al.size(); i++) {
+			IGSimAnnotation ann = al.get(i);
+			if (i > 0) {
+				buf.append(' ');
+			}
+			buf.append('[');
+			buf.append(fSimView.formatSignalValue(ann.getPath(), ann.getValue()));
+			buf.append(']');
+		}
+
+		str = buf.toString();
+		fFormatted.put(aLine, str);
+		return str;
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.editors.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Sorted set of identifiers supporting (case insensitive) prefix lookups in
+ * logarithmic time.
+ */
+
+public class IdentifierIndex {
+
+	// lower case keys, sorted and unique
+	private final String[] fKeys;
+
+	// identifiers as they are to be proposed, same order as fKeys
+	private final String[] fValues;
+
+	public IdentifierIndex(String[] aValues) {
+
+		int n = aValues.length;
+
+		final String keys[] = new String[n];
+		Integer order[] = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = aValues[i].toLowerCase();
+			order[i] = i;
+		}
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer aI1, Integer aI2) {
+				return keys[aI1].compareTo(keys[aI2]);
+			}
+		});
+
+		String k[] = new String[n];
+		String v[] = new String[n];
+		int m = 0;
+		for (int i = 0; i < n; i++) {
+			int idx = order[i];
+			if (m > 0 && k[m - 1].equals(keys[idx])) {
+				continue;
+			}
+			k[m] = keys[idx];
+			v[m] = aValues[idx];
+			m++;
+		}
+
+		fKeys = Arrays.copyOf(k, m);
+		fValues = Arrays.copyOf(v, m);
+	}
+
+	public int getNumIdentifiers() {
+		return fKeys.length;
+	}
+
+	/**
+	 * @param aPrefix
+	 *            lower case prefix, null matches all identifiers
+	 * @return matching identifiers in sorted order
+	 */
+
+	public List<String> find(String aPrefix) {
+
+		if (aPrefix == null || aPrefix.length() == 0) {
+			return Arrays.asList(fValues);
+		}
+
+		int start = lowerBound(aPrefix);
+		int end = start;
+		while (end < fKeys.length && fKeys[end].startsWith(aPrefix)) {
+			end++;
+		}
+
+		ArrayList<String> res = new ArrayList<String>(end - start);
+		for (int i = start; i < end; i++) {
+			res.add(fValues[i]);
+		}
+		return res;
+	}
+
+	// index of the first key >= aKey
+	private int lowerBound(String aKey) {
+		int lo = 0;
+		int hi = fKeys.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (fKeys[mid].compareTo(aKey) < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+}
@@ -10,6 +10,8 @@ package org.zamia.plugin.editors.completion;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.BadLocationException;
@@ -99,6 +101,21 @@ public class VHDLCompletionProcessor implements IContentAssistProcessor {
 
 	private IEditorPart fEditor;
 
+	private static final IdentifierIndex fKeywordIndex = new IdentifierIndex(VHDLScanner.fgKeywords);
+
+	// identifier index per scope of the current AST
+	private final IdentityHashMap<VHDLNode, IdentifierIndex> fScopeIndices = new IdentityHashMap<VHDLNode, IdentifierIndex>();
+
+	private int fScopeCompileCount = -1;
+
+	// incremented after every build, identifiers of other design units may have changed
+	private static volatile int fBuildCount = 0;
+
+	private int fScopeBuildCount = -1;
+
+	// per AST class: does it implement collectIdentifiers() itself
+	private static final HashMap<Class<?>, Boolean> fDeclaresIdentifiers = new HashMap<Class<?>, Boolean>();
+
 	public VHDLCompletionProcessor(IEditorPart editor) {
 		fTemplateImage = ZamiaPlugin.getImage("/share/images/library.gif");
 		fEditor = editor;
@@ -151,6 +168,87 @@ public class VHDLCompletionProcessor implements IContentAssistProcessor {
 		return text;
 	}
 
+	/**
+	 * Drop the cached identifier indices of all editors, called after a
+	 * build.
+	 */
+	public static void invalidateIndices() {
+		fBuildCount++;
+	}
+
+	/**
+	 * Nodes whose class inherits collectIdentifiers() from the generic AST
+	 * base classes see exactly what their parent sees. All others (design
+	 * units, processes, subprograms, loops, ...) may add identifiers.
+	 */
+	private static boolean declaresIdentifiers(ASTNode aNode) {
+
+		Class<?> cls = aNode.getClass();
+
+		Boolean declares = fDeclaresIdentifiers.get(cls);
+		if (declares == null) {
+			try {
+				Class<?> declaring = cls.getMethod("collectIdentifiers", HashSetArray.class, ZamiaProject.class).getDeclaringClass();
+				declares = declaring != ASTNode.class && declaring != VHDLNode.class;
+			} catch (NoSuchMethodException e) {
+				declares = Boolean.TRUE;
+			}
+			fDeclaresIdentifiers.put(cls, declares);
+		}
+		return declares;
+	}
+
+	/**
+	 * The innermost node around aNode that may declare identifiers, aNode
+	 * sees the same identifiers it does.
+	 */
+	private static VHDLNode getScope(VHDLNode aNode) {
+		ASTNode node = aNode;
+		while (node instanceof VHDLNode) {
+			if (declaresIdentifiers(node)) {
+				return (VHDLNode) node;
+			}
+			node = node.getParent();
+		}
+		return aNode;
+	}
+
+	/**
+	 * Identifiers visible from aNode, cached per scope until the
+	 * reconciler recompiles the file or the project is built.
+	 */
+	private IdentifierIndex getIdentifierIndex(VHDLNode aNode, ZamiaProject aZPrj, int aCompileCount) throws IOException, ZamiaException {
+
+		int buildCount = fBuildCount;
+		if (aCompileCount != fScopeCompileCount || buildCount != fScopeBuildCount) {
+			fScopeIndices.clear();
+			fScopeCompileCount = aCompileCount;
+			fScopeBuildCount = buildCount;
+		}
+
+		VHDLNode scope = getScope(aNode);
+
+		IdentifierIndex index = fScopeIndices.get(scope);
+		if (index == null) {
+
+			HashSetArray<String> identifiers = new HashSetArray<String>();
+
+			scope.collectIdentifiers(identifiers, aZPrj);
+			int n = identifiers.size();
+			logger.debug("VHDLCompletionProcessor: collected %d identifiers", n);
+
+			String ids[] = new String[n];
+			for (int i = 0; i < n; i++) {
+				ids[i] = identifiers.get(i).toLowerCase();
+			}
+
+			index = new IdentifierIndex(ids);
+			fScopeIndices.put(scope, index);
+		}
+
+		return index;
+	}
+
 	public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int documentOffset) {
 
 		ArrayList<ICompletionProposal> result = new ArrayList<ICompletionProposal>();
@@ -205,21 +303,12 @@ public class VHDLCompletionProcessor implements IContentAssistProcessor {
 
 				if (node instanceof VHDLNode) {
 
-					HashSetArray<String> identifiers = new HashSetArray<String>();
-
-					VHDLNode vn = (VHDLNode) node;
-
-					vn.collectIdentifiers(identifiers, zprj);
-					int n = identifiers.size();
-					logger.debug("VHDLCompletionProcessor: collected %d identifiers", n);
-					for (int i = 0; i < n; i++) {
+					IdentifierIndex index = getIdentifierIndex((VHDLNode) node, zprj, strategy.getCompileCount());
 
-						String id = identifiers.get(i).toLowerCase();
+					for (String id : index.find(prefix)) {
 
 						if (prefix != null) {
-							if (id.startsWith(prefix)) {
-								result.add(new CompletionProposal(id, region.getOffset(), region.getLength(), id.length()));
-							}
+							result.add(new CompletionProposal(id, region.getOffset(), region.getLength(), id.length()));
 						} else {
 							result.add(new CompletionProposal(id, documentOffset, 0, id.length()));
 						}
@@ -292,14 +381,10 @@ public class VHDLCompletionProcessor implements IContentAssistProcessor {
 			}
 		}
 
-		for (int i = 0; i < VHDLScanner.fgKeywords.length; i++) {
-
-			String kw = VHDLScanner.fgKeywords[i];
+		for (String kw : fKeywordIndex.find(prefix)) {
 
 			if (prefix != null) {
-				if (kw.toLowerCase().startsWith(prefix)) {
-					result.add(new CompletionProposal(kw, region.getOffset(), region.getLength(), kw.length()));
-				}
+				result.add(new CompletionProposal(kw, region.getOffset(), region.getLength(), kw.length()));
 			} else {
 				result.add(new CompletionProposal(kw, documentOffset, 0, kw.length()));
 			}
@@ -34,4 +34,8 @@ public class PreferenceConstants {
 
 	public static final String P_HILIGHT = "HilightColorPref"; //$NON-NLS-1$
 
+	public static final String P_NAVIGATOR_CACHE_SIZE = "NavigatorCacheSizePref"; //$NON-NLS-1$
+
+	public static final int DEFAULT_NAVIGATOR_CACHE_SIZE = 5000;
+
 }
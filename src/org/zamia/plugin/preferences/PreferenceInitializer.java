@@ -53,6 +53,8 @@ public class PreferenceInitializer extends AbstractPreferenceInitializer {
 		PreferenceConverter.setDefault(store, PreferenceConstants.P_MODULE_LABEL, color.getRGB());
 		color = display.getSystemColor(SWT.COLOR_RED);
 		PreferenceConverter.setDefault(store, PreferenceConstants.P_HILIGHT, color.getRGB());
+
+		store.setDefault(PreferenceConstants.P_NAVIGATOR_CACHE_SIZE, PreferenceConstants.DEFAULT_NAVIGATOR_CACHE_SIZE);
 	
 	}
 
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.preferences;
+
+import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
+import org.eclipse.ui.IWorkbench;
+import org.eclipse.ui.IWorkbenchPreferencePage;
+import org.zamia.plugin.ZamiaPlugin;
+
+
+/**
+ * General zamiaCAD preferences, the syntax coloring page is a sub page of
+ * this one.
+ */
+public class ZamiaPreferencePage extends FieldEditorPreferencePage implements IWorkbenchPreferencePage {
+
+	public ZamiaPreferencePage() {
+		super(GRID);
+		setPreferenceStore(ZamiaPlugin.getDefault().getPreferenceStore());
+		setDescription("zamiaCAD Preference Page");
+	}
+
+	public void createFieldEditors() {
+
+		IntegerFieldEditor cacheSize = new IntegerFieldEditor(PreferenceConstants.P_NAVIGATOR_CACHE_SIZE, "Navigator cache size (per item kind)", getFieldEditorParent());
+		cacheSize.setValidRange(100, 1000000);
+		addField(cacheSize);
+	}
+
+	public void init(IWorkbench workbench) {
+	}
+
+}
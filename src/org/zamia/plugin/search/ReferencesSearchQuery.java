@@ -67,6 +67,8 @@ public class ReferencesSearchQuery implements ISearchQuery {
 
 	private SourceLocation fLocation;
 
+	private IProgressMonitor fMonitor;
+
 	public ReferencesSearchQuery(ZamiaProject aZPrj, ToplevelPath aTLP, SourceLocation aLocation, boolean aSearchUpward, boolean aSearchDownward, boolean aDeclOnly, boolean aUsePath, boolean aWritersOnly, boolean aReadersOnly) {
 
 		fZPrj = aZPrj;
@@ -136,6 +138,9 @@ public class ReferencesSearchQuery implements ISearchQuery {
 		fSearchResult = getSearchResult();
 		fSearchResult.removeAll();
 
+		fMonitor = aMonitor;
+		aMonitor.beginTask("Searching references", IProgressMonitor.UNKNOWN);
+
 		try {
 
 			ZamiaProject zprj = fZPrj;
@@ -184,6 +189,8 @@ public class ReferencesSearchQuery implements ISearchQuery {
 					fMessage = declaration;
 					if (declaration != null) {
 
+						checkCanceled();
+
 						ReferenceSearchResult results = ASTReferencesSearch.search(declaration, fSearchUpward, fSearchDownward, zprj);
 
 						if (fDeclOnly) {
@@ -215,6 +222,11 @@ public class ReferencesSearchQuery implements ISearchQuery {
 					ZamiaPlugin.showError(null, "AST-based reference search failed", "Failed to map cursor location " + fLocation + " to and AST object", "");
 				}
 			}
+		} catch (OperationCanceledException e) {
+			logger.info("ReferencesSearchQuery: search canceled, %d references found so far", refCounter);
+			fDone = true;
+			aMonitor.done();
+			return Status.CANCEL_STATUS;
 		} catch (Throwable e) {
 			el.logException(e);
 			ZamiaPlugin.showError(null, "Exception caught while executing reference search", "Caught an unexpected exception during reference search", "" + e);
@@ -226,11 +238,26 @@ public class ReferencesSearchQuery implements ISearchQuery {
 
 	//Extended search may have more than one result to merge
 	protected void igSearch(IGObject object, ToplevelPath path) {
+		checkCanceled();
 		IGReferencesSearch rs = new IGReferencesSearch(fZPrj);
 		ReferenceSearchResult rsr = rs.search(object, path, fSearchUpward, fSearchDownward, fWritersOnly, fReadersOnly);
 		mergeResults(object, rsr);
 	}
 
+	/**
+	 * The core searches take no progress monitor and cannot be interrupted,
+	 * so a canceled query stops before the next one starts. Results of a
+	 * search that has already returned are always kept.
+	 * 
+	 * @throws OperationCanceledException
+	 *             if the monitor has been canceled
+	 */
+	protected void checkCanceled() {
+		if (fMonitor != null && fMonitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
 	protected void mergeResults(Object aObject, ReferenceSearchResult root) {
 		if (root != null) {
 			//aRSR.dump(1, System.err);
@@ -246,5 +273,8 @@ public class ReferencesSearchQuery implements ISearchQuery {
 	protected void addMatch(ReferenceSearchResult aRSR) {
 		refCounter += aRSR.countRefs();
 		fSearchResult.addMatch(new Match(aRSR, 0, 1));
+		if (fMonitor != null) {
+			fMonitor.subTask(refCounter + " references found");
+		}
 	}
 }
\ No newline at end of file
@@ -117,6 +117,8 @@ class ExtendedReferencesSearchQuery extends ReferencesSearchQuery {
 	protected void igSearch(IGObject object, ToplevelPath path) {
 		
 		if (fFollowAssignments) {
+			checkCanceled();
+
 			IGAssignmentsSearch rs = new IGAssignmentsSearch(fZPrj, fDepth);
 
 			Map<Long, RootResult> searches = rs.assignmentThroughSearch(object, path, fSearchUpward, fSearchDownward, fWritersOnly, fReadersOnly);
@@ -13,7 +13,8 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 
 import org.eclipse.core.resources.IProject;
@@ -49,6 +50,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.TextStyle;
+import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.ui.IEditorPart;
@@ -87,6 +89,9 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 
 		private ZamiaSearchResult fSearchResult;
 
+		// de-duplicated assignments per root, see getChildren()
+		private final IdentityHashMap<RootResult, Object[]> fDedupCache = new IdentityHashMap<RootResult, Object[]>();
+
 		@SuppressWarnings("unchecked")
 		public Object[] getElements(Object inputElement) {
 			if (inputElement instanceof AbstractTextSearchResult) {
@@ -126,6 +131,8 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 			assignmentIcon = null;
 			fTreeViewer = (TreeViewer) viewer;
 			fSearchResult = (ZamiaSearchResult) newInput;
+			fDedupCache.clear();
+			fLabelCache.clear();
 			
 			boolean assignmentSearch = newInput != null && (((ExtendedReferencesSearchQuery) getQuery()).fFollowAssignments);
 			
@@ -144,26 +151,45 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 		}
 
 		public void refresh() {
+			fDedupCache.clear();
 			fTreeViewer.refresh();
 			highlightAssignments.run();
 		}
 
 		public void elementsChanged(Object[] updatedElements) {
 
-			fTreeViewer.refresh();
-			fTreeViewer.expandAll();
-
-			//			for (int i = 0; i < updatedElements.length; i++) {
-			//				if (fSearchResult.getMatchCount(updatedElements[i]) > 0) {
-			//					if (fTreeViewer.testFindItem(updatedElements[i]) != null)
-			//						fTreeViewer.refresh(updatedElements[i]);
-			//					else {
-			//						fTableViewer.add(updatedElements[i]);
-			//					}
-			//				} else {
-			//					fTreeViewer.remove(updatedElements[i]);
-			//				}
-			//			}
+			for (Object element : updatedElements) {
+
+				fDedupCache.remove(element);
+
+				// the items this element shows at the top level, see getElements()
+				ArrayList<Object> items = new ArrayList<Object>();
+				if (element instanceof RootResult) {
+					items.add(element);
+				} else {
+					for (Object o : ((ReferenceSearchResult) element).fChildren) {
+						items.add(o);
+					}
+				}
+
+				if (fSearchResult.getMatchCount(element) > 0) {
+					for (Object item : items) {
+						if (fTreeViewer.testFindItem(item) != null) {
+							fTreeViewer.refresh(item);
+						} else {
+							fTreeViewer.add(fSearchResult, item);
+						}
+					}
+				} else {
+					fTreeViewer.remove(items.toArray());
+				}
+			}
+
+			// expanding everything would create an item for every single match,
+			// only open the top level when there are few results
+			if (fSearchResult.getElements().length <= MAX_AUTO_EXPAND) {
+				fTreeViewer.expandToLevel(2);
+			}
 		}
 
 		public Object[] getChildren(Object parentElement) {
@@ -171,18 +197,26 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 			if (parentElement instanceof RootResult && !expandAssignments.isChecked()) {
 				
 				RootResult root = (RootResult) parentElement;
+
+				Object[] cached = fDedupCache.get(root);
+				if (cached != null) {
+					return cached;
+				}
+
 				int n = root.getNumChildren(); 
 				
-				// Simple Algorithm hides all but one assignment of the duplicates
-				Collection<ReferenceSearchResult> res = new ArrayList<ReferenceSearchResult>(n);
-				l1: for (ReferenceSearchResult r: root.fChildren) {
-					for (Object a2: res)
-						if (((SearchAssignment) a2).keyResult == ((SearchAssignment) r).keyResult)
-							continue l1;
-					res.add(r);
+				// hides all but the first assignment of the duplicates (same keyResult)
+				IdentityHashMap<RootResult, Boolean> seen = new IdentityHashMap<RootResult, Boolean>(n);
+				ArrayList<ReferenceSearchResult> res = new ArrayList<ReferenceSearchResult>(n);
+				for (ReferenceSearchResult r: root.fChildren) {
+					if (seen.put(((SearchAssignment) r).keyResult, Boolean.TRUE) == null) {
+						res.add(r);
+					}
 				}
 					
-				return res.toArray(new Object[res.size()]);
+				Object[] children = res.toArray(new Object[res.size()]);
+				fDedupCache.put(root, children);
+				return children;
 				
 			}
 			
@@ -224,8 +258,27 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 
 	}
 
+	private static final int MAX_AUTO_EXPAND = 100;
+
 	private ZamiaSearchTreeContentProvider fContentProvider;
 
+	/**
+	 * What the labels need from an IGObject, cached per DBID so each object
+	 * is loaded from the ZDB at most once per search result.
+	 */
+	static class ObjLabel {
+		final String fId;
+
+		final String fType;
+
+		ObjLabel(IGObject aObj) {
+			fId = aObj.getId();
+			fType = aObj.getType().toString().toLowerCase();
+		}
+	}
+
+	private final HashMap<Long, ObjLabel> fLabelCache = new HashMap<Long, ObjLabel>();
+
 	public ZamiaSearchResultPage() {
 		super(AbstractTextSearchViewPage.FLAG_LAYOUT_TREE); // FLAG_LAYOUT_FLAT
 	}
@@ -241,6 +294,12 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 			fContentProvider.refresh();
 	}
 
+	@Override
+	protected TreeViewer createTreeViewer(Composite parent) {
+		// items are only created once they become visible
+		return new TreeViewer(parent, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL | SWT.VIRTUAL);
+	}
+
 	protected void configureTreeViewer(TreeViewer viewer) {
 		viewer.setComparator(createViewerComparator());
         viewer.setLabelProvider(new ColoringLabelProvider(createLabelProvider()));
@@ -268,9 +327,9 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 		}
 		
 		String exportName(ReferenceSite ref) {
-			IGObject o = loadObj(ref.getDBID());
+			ObjLabel o = getObjLabel(ref.getDBID());
 			String pa = ref.getPath().getPath().toString();
-			return "\"" + o.getId() + (pa.length() == 0 ? "" : " - " + pa) + "\""; 
+			return "\"" + o.fId + (pa.length() == 0 ? "" : " - " + pa) + "\""; 
 		}
 		
 		public void run() {
@@ -526,8 +585,7 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 				//String icon = rs instanceof SearchAssignment ? "    => " : ""; 
 				if (rs.getDBID() == 0)
 					return new StyledString("a constant");
-				IGObject igObj = loadObj(rs.getDBID());
-				String type = igObj.getType().toString();
+				ObjLabel label = getObjLabel(rs.getDBID());
 
 				String nextSearch = "";
 				if (rs instanceof SearchAssignment) {
@@ -538,9 +596,9 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 				// []
 				StyledString[] resultParts = new StyledString[] {
 						new StyledString((rs instanceof RootResult) ? ((RootResult) rs).num_prefix + ". " : "", StyledString.QUALIFIER_STYLER),
-						new StyledString(igObj.getId() + nextSearch),
+						new StyledString(label.fId + nextSearch),
 						new StyledString(" : ", StyledString.QUALIFIER_STYLER), 
-						new StyledString(type.toLowerCase(), typeStyler),
+						new StyledString(label.fType, typeStyler),
 						new StyledString(getQuery().fSearchDownward || getQuery().fSearchUpward ? " - " + rs.getPath().getPath() : "", pathStyler) 									
 				};
 				
@@ -555,10 +613,15 @@ public class ZamiaSearchResultPage extends AbstractTextSearchViewPage {
 
 	}
 	
-	private IGObject loadObj(long dbid) {
-		return (IGObject) getZamiaProject().getZDB().load(dbid);
+	private ObjLabel getObjLabel(long dbid) {
+		ObjLabel label = fLabelCache.get(dbid);
+		if (label == null) {
+			label = new ObjLabel((IGObject) getZamiaProject().getZDB().load(dbid));
+			fLabelCache.put(dbid, label);
+		}
+		return label;
 	}
-	
+
 	protected IStyledLabelProvider createLabelProvider() {
 		return new SearchLabelProvider();
 	}
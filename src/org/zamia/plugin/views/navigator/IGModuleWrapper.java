@@ -67,6 +67,9 @@ public class IGModuleWrapper implements Comparable<IGModuleWrapper> {
 
 	private NavigatorWrapperCache fCache;
 
+	// display label, computed on first use (building type and initial value strings is expensive)
+	private String fLabel;
+
 	public IGModuleWrapper(IGMWOp aOp, String aSignature, DMUID aDMUID, ToplevelPath aPath, NavigatorWrapperCache aCache) {
 		fSignature = aSignature;
 		fDMUID = aDMUID;
@@ -170,6 +173,7 @@ public class IGModuleWrapper implements Comparable<IGModuleWrapper> {
 
 	public void setDMUID(DMUID aDMUID) {
 		fDMUID = aDMUID;
+		fLabel = null;
 	}
 
 	public void setZPrj(ZamiaProject aZPrj) {
@@ -397,8 +401,24 @@ public class IGModuleWrapper implements Comparable<IGModuleWrapper> {
 		return res;
 	}
 
+	/**
+	 * @return display label, also used as sort key
+	 */
+	public String getLabel() {
+		String label = fLabel;
+		if (label == null) {
+			label = computeLabel();
+			fLabel = label;
+		}
+		return label;
+	}
+
 	@Override
 	public String toString() {
+		return getLabel();
+	}
+
+	private String computeLabel() {
 
 		String label = "???";
 
@@ -469,9 +489,7 @@ public class IGModuleWrapper implements Comparable<IGModuleWrapper> {
 
 	@Override
 	public int compareTo(IGModuleWrapper aO) {
-		String s1 = toString();
-		String s2 = aO.toString();
-		return s1.compareTo(s2);
+		return getLabel().compareTo(aO.getLabel());
 	}
 
 	public boolean hasChildren() {
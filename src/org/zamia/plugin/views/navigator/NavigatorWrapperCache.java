@@ -8,15 +8,21 @@
  */
 package org.zamia.plugin.views.navigator;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
 import org.zamia.Toplevel;
 import org.zamia.ToplevelPath;
+import org.zamia.ZamiaLogger;
 import org.zamia.ZamiaProject;
 import org.zamia.instgraph.IGInstantiation;
 import org.zamia.instgraph.IGModule;
 import org.zamia.instgraph.IGProcess;
 import org.zamia.instgraph.IGStructure;
+import org.zamia.plugin.ZamiaPlugin;
+import org.zamia.plugin.preferences.PreferenceConstants;
 import org.zamia.plugin.views.navigator.IGModuleWrapper.IGMWOp;
 import org.zamia.plugin.views.navigator.RTLModuleWrapper.RTLMWOp;
 import org.zamia.util.PathName;
@@ -32,25 +38,80 @@ import org.zamia.vhdl.ast.DMUID;
 
 public class NavigatorWrapperCache {
 
+	public final static ZamiaLogger logger = ZamiaLogger.getInstance();
+
+	// log statistics every LOG_INTERVAL evictions
+	private static final int LOG_INTERVAL = 1000;
+
+	// read on every put, so kept here and updated when the preference changes
+	private static volatile int fMaxEntries = readMaxEntries();
+
+	static {
+		ZamiaPlugin.getDefault().getPreferenceStore().addPropertyChangeListener(new IPropertyChangeListener() {
+			public void propertyChange(PropertyChangeEvent aEvent) {
+				if (PreferenceConstants.P_NAVIGATOR_CACHE_SIZE.equals(aEvent.getProperty())) {
+					fMaxEntries = readMaxEntries();
+				}
+			}
+		});
+	}
+
 	private ZamiaProject fZPrj;
 	
-	private HashMap<DMUID, IGModuleWrapper> fBlueDUUIDWrappers = new HashMap<DMUID, IGModuleWrapper>();
-	private HashMap<DMUID, IGModuleWrapper> fRedDUUIDWrappers = new HashMap<DMUID, IGModuleWrapper>();
-	private HashMap<DMUID, RTLModuleWrapper> fSynthDUUIDWrappers = new HashMap<DMUID, RTLModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fLocalsWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fGlobalsWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fInstantiationWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fStructWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fProcessWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
-	private HashMap<ToplevelPath, IGModuleWrapper> fBlueWrappers = new HashMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<DMUID, IGModuleWrapper> fBlueDUUIDWrappers = new LRUMap<DMUID, IGModuleWrapper>();
+	private final LRUMap<DMUID, IGModuleWrapper> fRedDUUIDWrappers = new LRUMap<DMUID, IGModuleWrapper>();
+	private final LRUMap<DMUID, RTLModuleWrapper> fSynthDUUIDWrappers = new LRUMap<DMUID, RTLModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fLocalsWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fGlobalsWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fInstantiationWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fStructWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fProcessWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+	private final LRUMap<ToplevelPath, IGModuleWrapper> fBlueWrappers = new LRUMap<ToplevelPath, IGModuleWrapper>();
+
+	private long fHits, fMisses, fEvictions;
+
+	/**
+	 * Wrapper map that drops its least recently used entries once the size
+	 * configured in the preferences is exceeded. Evicted wrappers are simply
+	 * re-created on demand (losing their expansion state).
+	 */
+	@SuppressWarnings("serial")
+	private class LRUMap<K, V> extends LinkedHashMap<K, V> {
+
+		LRUMap() {
+			super(16, 0.75f, true);
+		}
+
+		V lookup(K aKey) {
+			V v = get(aKey);
+			if (v != null) {
+				fHits++;
+			} else {
+				fMisses++;
+			}
+			return v;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> aEldest) {
+			if (size() <= fMaxEntries) {
+				return false;
+			}
+			fEvictions++;
+			if (fEvictions % LOG_INTERVAL == 0) {
+				logger.info("NavigatorWrapperCache: %s", getStats());
+			}
+			return true;
+		}
+	}
 
 	public NavigatorWrapperCache(ZamiaProject aZPrj) {
 		fZPrj = aZPrj;
 	}
 
-	public IGModuleWrapper getRedWrapper(Toplevel aTL, DMUID aDUUID) {
+	public synchronized IGModuleWrapper getRedWrapper(Toplevel aTL, DMUID aDUUID) {
 
-		IGModuleWrapper wrapper = fRedDUUIDWrappers.get(aDUUID);
+		IGModuleWrapper wrapper = fRedDUUIDWrappers.lookup(aDUUID);
 		if (wrapper != null) {
 			return wrapper;
 		}
@@ -67,9 +128,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getBlueWrapper(Toplevel aTL, DMUID aDUUID) {
+	public synchronized IGModuleWrapper getBlueWrapper(Toplevel aTL, DMUID aDUUID) {
 
-		IGModuleWrapper wrapper = fBlueDUUIDWrappers.get(aDUUID);
+		IGModuleWrapper wrapper = fBlueDUUIDWrappers.lookup(aDUUID);
 		if (wrapper != null) {
 			return wrapper;
 		}
@@ -90,9 +151,30 @@ public class NavigatorWrapperCache {
 		return fZPrj;
 	}
 
-	public IGModuleWrapper getLocalsWrapper(IGModule aModule, ToplevelPath aPath) {
+	/**
+	 * @return maximum number of wrappers kept per wrapper kind
+	 */
+	public static int getMaxEntries() {
+		return fMaxEntries;
+	}
+
+	private static int readMaxEntries() {
+		int max = ZamiaPlugin.getDefault().getPreferenceStore().getInt(PreferenceConstants.P_NAVIGATOR_CACHE_SIZE);
+		return max > 0 ? max : PreferenceConstants.DEFAULT_NAVIGATOR_CACHE_SIZE;
+	}
+
+	public synchronized int size() {
+		return fBlueDUUIDWrappers.size() + fRedDUUIDWrappers.size() + fSynthDUUIDWrappers.size() + fLocalsWrappers.size() + fGlobalsWrappers.size()
+				+ fInstantiationWrappers.size() + fStructWrappers.size() + fProcessWrappers.size() + fBlueWrappers.size();
+	}
+
+	public synchronized String getStats() {
+		return String.format("%d wrappers cached, %d hits, %d misses, %d evictions (limit %d per kind)", size(), fHits, fMisses, fEvictions, getMaxEntries());
+	}
+
+	public synchronized IGModuleWrapper getLocalsWrapper(IGModule aModule, ToplevelPath aPath) {
 
-		IGModuleWrapper wrapper = fLocalsWrappers.get(aPath);
+		IGModuleWrapper wrapper = fLocalsWrappers.lookup(aPath);
 		if (wrapper != null && wrapper.getModule().getDBID() == aModule.getDBID()) {
 			return wrapper;
 		}
@@ -103,9 +185,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getGlobalsWrapper(IGModule aModule, ToplevelPath aPath) {
+	public synchronized IGModuleWrapper getGlobalsWrapper(IGModule aModule, ToplevelPath aPath) {
 
-		IGModuleWrapper wrapper = fGlobalsWrappers.get(aPath);
+		IGModuleWrapper wrapper = fGlobalsWrappers.lookup(aPath);
 		if (wrapper != null && wrapper.getModule().getDBID() == aModule.getDBID()) {
 			return wrapper;
 		}
@@ -116,9 +198,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getInstantiationWrapper(IGInstantiation aInst, ToplevelPath aTP) {
+	public synchronized IGModuleWrapper getInstantiationWrapper(IGInstantiation aInst, ToplevelPath aTP) {
 		
-		IGModuleWrapper wrapper = fInstantiationWrappers.get(aTP);
+		IGModuleWrapper wrapper = fInstantiationWrappers.lookup(aTP);
 		if (wrapper != null && wrapper.getInstantiation().getDBID() == aInst.getDBID()) {
 			return wrapper;
 		}
@@ -130,9 +212,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getStructureWrapper(IGStructure aStruct, ToplevelPath aTP) {
+	public synchronized IGModuleWrapper getStructureWrapper(IGStructure aStruct, ToplevelPath aTP) {
 		
-		IGModuleWrapper wrapper = fStructWrappers.get(aTP);
+		IGModuleWrapper wrapper = fStructWrappers.lookup(aTP);
 		if (wrapper != null && wrapper.getStruct().getDBID() == aStruct.getDBID()) {
 			return wrapper;
 		}
@@ -144,9 +226,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getProcessWrapper(IGProcess aProcess, ToplevelPath aTP) {
+	public synchronized IGModuleWrapper getProcessWrapper(IGProcess aProcess, ToplevelPath aTP) {
 		
-		IGModuleWrapper wrapper = fProcessWrappers.get(aTP);
+		IGModuleWrapper wrapper = fProcessWrappers.lookup(aTP);
 		if (wrapper != null && wrapper.getProcess().getDBID() == aProcess.getDBID()) {
 			return wrapper;
 		}
@@ -158,9 +240,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public IGModuleWrapper getBlueWrapper(IGInstantiation aInst, ToplevelPath aTP) {
+	public synchronized IGModuleWrapper getBlueWrapper(IGInstantiation aInst, ToplevelPath aTP) {
 		
-		IGModuleWrapper wrapper = fBlueWrappers.get(aTP);
+		IGModuleWrapper wrapper = fBlueWrappers.lookup(aTP);
 
 //		if (wrapper != null && wrapper.getInstantiation().getDBID() == aInst.getDBID()) {
 //			return wrapper;
@@ -174,9 +256,9 @@ public class NavigatorWrapperCache {
 		return wrapper;
 	}
 
-	public RTLModuleWrapper getSynthWrapper(Toplevel aTL, DMUID aDUUID) {
+	public synchronized RTLModuleWrapper getSynthWrapper(Toplevel aTL, DMUID aDUUID) {
 
-		RTLModuleWrapper wrapper = fSynthDUUIDWrappers.get(aDUUID);
+		RTLModuleWrapper wrapper = fSynthDUUIDWrappers.lookup(aDUUID);
 		if (wrapper != null) {
 			return wrapper;
 		}
@@ -0,0 +1,31 @@
+/* 
+ * Copyright 2026 by the authors indicated in the @author tags. 
+ * All rights reserved. 
+ * 
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.navigator;
+
+
+/**
+ * Placeholder shown in the navigator while the real children of a node are
+ * computed in the background
+ */
+
+public class PendingNode {
+
+	private final Object fParent;
+
+	public PendingNode(Object aParent) {
+		fParent = aParent;
+	}
+
+	public Object getParent() {
+		return fParent;
+	}
+
+	@Override
+	public String toString() {
+		return "Loading...";
+	}
+}
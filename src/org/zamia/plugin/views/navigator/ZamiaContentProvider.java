@@ -13,7 +13,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -23,6 +26,11 @@ import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.Viewer;
@@ -64,6 +72,36 @@ public class ZamiaContentProvider extends BaseWorkbenchContentProvider implement
 	// caching of wrappers is necessary to keep items expanded during navigator refresh
 	private HashMap<ZamiaProject, NavigatorWrapperCache> fCaches = new HashMap<ZamiaProject, NavigatorWrapperCache>();
 
+	private static final int MAX_LOADED_CHILDREN = 1000;
+
+	// incremented after every build, children computed before are outdated
+	private static volatile int fGeneration = 0;
+
+	static class LoadedChildren {
+
+		final Object[] fChildren;
+
+		int fGeneration;
+
+		LoadedChildren(Object[] aChildren, int aGeneration) {
+			fChildren = aChildren;
+			fGeneration = aGeneration;
+		}
+	}
+
+	// children computed in the background, kept until the resource or the IG changes
+	private final LinkedHashMap<Object, LoadedChildren> fLoadedChildren = new LinkedHashMap<Object, LoadedChildren>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, LoadedChildren> aEldest) {
+			return size() > MAX_LOADED_CHILDREN;
+		}
+	};
+
+	// elements whose children are currently being computed
+	private final HashSet<Object> fPendingChildren = new HashSet<Object>();
+
 	private NavigatorWrapperCache getCache(ZamiaProject aZPrj) {
 		NavigatorWrapperCache cache = fCaches.get(aZPrj);
 		if (cache == null) {
@@ -135,38 +173,136 @@ public class ZamiaContentProvider extends BaseWorkbenchContentProvider implement
 				return res.toArray();
 			}
 
-		} else if (element instanceof IGModuleWrapper) {
+		} else if (element instanceof IGModuleWrapper || element instanceof IFile) {
 
-			IGModuleWrapper wrapper = (IGModuleWrapper) element;
+			return getDeferredChildren(element);
 
-			return wrapper.getChildren();
+		}
+		return super.getChildren(element);
+	}
 
-		} else if (element instanceof IFile) {
-			IFile file = (IFile) element;
+	/**
+	 * Children of design files and IG wrappers can be expensive to compute
+	 * (compiling the file, looking up modules in the IGM), so this is done in a
+	 * background job. A PendingNode is only shown until the children have been
+	 * computed for the first time: once the resource or the IG has changed the
+	 * old children are shown while the new ones are computed, then the job
+	 * refreshes the element.
+	 */
+	private Object[] getDeferredChildren(final Object aElement) {
 
-			// System.out.println("Looking for children of " + file.getName());
+		final int generation = fGeneration;
 
-			IProject prj = file.getProject();
-			ZamiaProject zprj = ZamiaProjectMap.getZamiaProject(prj);
-			DMManager dum = zprj.getDUM();
+		LoadedChildren loaded;
+		synchronized (fLoadedChildren) {
+			loaded = fLoadedChildren.get(aElement);
+			if (loaded != null && loaded.fGeneration == generation) {
+				return loaded.fChildren;
+			}
+			if (!fPendingChildren.add(aElement)) {
+				return loaded != null ? loaded.fChildren : new Object[] { new PendingNode(aElement) };
+			}
+		}
 
-			try {
+		Job job = new Job("Loading " + aElement) {
+			@Override
+			protected IStatus run(IProgressMonitor aMonitor) {
 
-				SourceFile sf = ZamiaPlugin.getSourceFile(file);
+				Object[] children = null;
+				try {
+					children = computeChildren(aElement);
+				} catch (Throwable t) {
+					el.logException(t);
+				}
+				if (children == null) {
+					children = new Object[0];
+				}
 
-				Object[] res = getDUs(dum, sf);
+				synchronized (fLoadedChildren) {
+					fPendingChildren.remove(aElement);
+					fLoadedChildren.put(aElement, new LoadedChildren(children, generation));
+				}
 
-				// long d = System.currentTimeMillis() - startTime;
-				// logger.debug("NAVIAGTOR: getting children of %s took %d ms",
-				// element.toString(), d);
+				refreshElement(aElement);
 
-				return res;
+				return Status.OK_STATUS;
+			}
+		};
+		job.setPriority(Job.SHORT);
+		// serializes the loaders with each other and with the builder
+		job.setRule(getRule(aElement));
+		job.schedule();
 
-			} catch (IOException e) {
-				el.logException(e);
+		return loaded != null ? loaded.fChildren : new Object[] { new PendingNode(aElement) };
+	}
+
+	private ISchedulingRule getRule(Object aElement) {
+		if (aElement instanceof IFile) {
+			return ((IFile) aElement).getProject();
+		}
+		return ZamiaProjectMap.getProject(((IGModuleWrapper) aElement).getZPrj());
+	}
+
+	/**
+	 * Called after a build: children computed so far are refreshed in the
+	 * background the next time they are asked for.
+	 */
+	public static void invalidateChildren() {
+		fGeneration++;
+	}
+
+	private void invalidateChildren(Object aElement) {
+		synchronized (fLoadedChildren) {
+			LoadedChildren loaded = fLoadedChildren.get(aElement);
+			if (loaded != null) {
+				loaded.fGeneration = -1;
 			}
 		}
-		return super.getChildren(element);
+	}
+
+	private Object[] computeChildren(Object aElement) throws IOException {
+
+		if (aElement instanceof IGModuleWrapper) {
+
+			IGModuleWrapper wrapper = (IGModuleWrapper) aElement;
+
+			return wrapper.getChildren();
+
+		}
+
+		IFile file = (IFile) aElement;
+
+		// System.out.println("Looking for children of " + file.getName());
+
+		IProject prj = file.getProject();
+		ZamiaProject zprj = ZamiaProjectMap.getZamiaProject(prj);
+		if (zprj == null) {
+			return null;
+		}
+		DMManager dum = zprj.getDUM();
+
+		SourceFile sf = ZamiaPlugin.getSourceFile(file);
+
+		return getDUs(dum, sf);
+	}
+
+	private void refreshElement(final Object aElement) {
+
+		final Viewer v = viewer;
+		Control ctrl = v != null ? v.getControl() : null;
+		if (ctrl == null || ctrl.isDisposed()) {
+			return;
+		}
+
+		ctrl.getDisplay().asyncExec(new Runnable() {
+			public void run() {
+				Control ctrl = v.getControl();
+				if (ctrl == null || ctrl.isDisposed()) {
+					return;
+				}
+				((StructuredViewer) v).refresh(aElement);
+			}
+		});
 	}
 
 	private Object[] getDUs(DMManager aDUM, SourceFile aSF) throws IOException {
@@ -406,6 +542,7 @@ public class ZamiaContentProvider extends BaseWorkbenchContentProvider implement
 			if (resource instanceof IFile) {
 				// IFile file = (IFile) resource;
 				// if(PythonPathHelper.isValidSourceFile(file)){
+				invalidateChildren(resource);
 				runnables.add(getRefreshRunnable(resource));
 				// }
 			}
@@ -176,7 +176,7 @@ public class ZamiaLabelProvider extends LabelProvider {
 		} else if (element instanceof IGModuleWrapper) {
 			IGModuleWrapper wrapper = (IGModuleWrapper) element;
 
-			return wrapper.toString();
+			return wrapper.getLabel();
 		} else if (element instanceof IResource) { // Ifile, Ifolder and IProject
 			return ((IResource) element).getName().toString();
 		}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.rtl;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.zamia.vg.VGGC;
+
+
+/**
+ * The VGGC the place-and-route job measures text with.
+ *
+ * Character advance widths of the fonts at zoom factor 1.0 are measured once
+ * on the UI thread, text widths are summed up from them. So the layout does
+ * not depend on the current zoom and the job never touches SWT. Drawing is
+ * not supported.
+ */
+
+public class LayoutGC implements VGGC {
+
+	private static final int NUM_CHARS = 256;
+
+	private final int[][] fAdvanceWidths = new int[VGFont.values().length][];
+
+	private final int[] fAverageWidths = new int[VGFont.values().length];
+
+	private VGFont fFont = VGFont.NORMAL;
+
+	/**
+	 * Must be called on the UI thread.
+	 */
+
+	public LayoutGC(Display aDisplay) {
+
+		Image image = new Image(aDisplay, 1, 1);
+		GC gc = new GC(image);
+
+		try {
+			for (VGFont font : VGFont.values()) {
+
+				Font f = new Font(aDisplay, RTLView.FONT_NAME, getFontHeight(font), font == VGFont.LARGE ? SWT.BOLD : SWT.NONE);
+
+				try {
+					gc.setFont(f);
+
+					int[] widths = new int[NUM_CHARS];
+					for (int c = 0; c < NUM_CHARS; c++) {
+						widths[c] = gc.getAdvanceWidth((char) c);
+					}
+					fAdvanceWidths[font.ordinal()] = widths;
+					fAverageWidths[font.ordinal()] = gc.getFontMetrics().getAverageCharWidth();
+
+				} finally {
+					f.dispose();
+				}
+			}
+		} finally {
+			gc.dispose();
+			image.dispose();
+		}
+	}
+
+	private static int getFontHeight(VGFont aFont) {
+		switch (aFont) {
+		case LARGE:
+			return RTLView.LARGE_FONT_SIZE;
+		case SMALL:
+			return RTLView.SMALL_FONT_SIZE;
+		default:
+			return RTLView.NORMAL_FONT_SIZE;
+		}
+	}
+
+	@Override
+	public void start(int aWidth, int aHeight) {
+	}
+
+	@Override
+	public void finish() {
+	}
+
+	@Override
+	public void setFont(VGFont aFont) {
+		fFont = aFont;
+	}
+
+	@Override
+	public int getFontHeight() {
+		return getFontHeight(fFont);
+	}
+
+	@Override
+	public int textWidth(String aText) {
+
+		int[] widths = fAdvanceWidths[fFont.ordinal()];
+		int average = fAverageWidths[fFont.ordinal()];
+
+		int w = 0;
+		int l = aText.length();
+		for (int i = 0; i < l; i++) {
+			char c = aText.charAt(i);
+			w += c < NUM_CHARS ? widths[c] : average;
+		}
+		return w;
+	}
+
+	@Override
+	public void setLineWidth(int aWidth) {
+	}
+
+	@Override
+	public void setForeground(VGColor aColor) {
+	}
+
+	@Override
+	public void setBackground(VGColor aColor) {
+	}
+
+	@Override
+	public void drawLine(int aX1, int aY1, int aX2, int aY2) {
+	}
+
+	@Override
+	public void drawOval(int aX, int aY, int aXR, int aYR) {
+	}
+
+	@Override
+	public void fillOval(int aX, int aY, int aXR, int aYR) {
+	}
+
+	@Override
+	public void drawText(String aLabel, int aX, int aY, boolean aTransparent) {
+	}
+
+	@Override
+	public void drawRectangle(int aX, int aY, int aW, int aH) {
+	}
+
+	@Override
+	public void fillRectangle(int aX, int aY, int aW, int aH) {
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.rtl;
+
+import java.util.ArrayList;
+
+import org.zamia.rtl.RTLNode;
+
+
+/**
+ * Uniform grid over a finished layout (in unzoomed layout coordinates).
+ *
+ * Node boxes are added when the layout is installed, everything else the
+ * layout draws (wires, pins, labels) is recorded by SWTGC during the first
+ * paint. Once complete, the index tells which nodes are at a given point and
+ * whether anything at all has been drawn near it.
+ */
+
+public class RTLHitIndex {
+
+	private static final int CELL_SIZE = 64;
+
+	private static class Entry {
+		final int fX1, fY1, fX2, fY2;
+
+		final RTLNode fNode;
+
+		Entry(int aX1, int aY1, int aX2, int aY2, RTLNode aNode) {
+			fX1 = aX1;
+			fY1 = aY1;
+			fX2 = aX2;
+			fY2 = aY2;
+			fNode = aNode;
+		}
+
+		boolean intersects(int aX1, int aY1, int aX2, int aY2) {
+			return fX1 <= aX2 && aX1 <= fX2 && fY1 <= aY2 && aY1 <= fY2;
+		}
+	}
+
+	private final int fCols, fRows;
+
+	private final ArrayList<Entry>[] fCells;
+
+	private boolean fComplete = false;
+
+	@SuppressWarnings("unchecked")
+	public RTLHitIndex(int aWidth, int aHeight) {
+		fCols = Math.max(aWidth / CELL_SIZE + 1, 1);
+		fRows = Math.max(aHeight / CELL_SIZE + 1, 1);
+		fCells = new ArrayList[fCols * fRows];
+	}
+
+	private int col(int aX) {
+		int c = aX / CELL_SIZE;
+		return c < 0 ? 0 : (c >= fCols ? fCols - 1 : c);
+	}
+
+	private int row(int aY) {
+		int r = aY / CELL_SIZE;
+		return r < 0 ? 0 : (r >= fRows ? fRows - 1 : r);
+	}
+
+	private void add(Entry aEntry) {
+		int c2 = col(aEntry.fX2);
+		int r2 = row(aEntry.fY2);
+		for (int r = row(aEntry.fY1); r <= r2; r++) {
+			for (int c = col(aEntry.fX1); c <= c2; c++) {
+				int idx = r * fCols + c;
+				ArrayList<Entry> cell = fCells[idx];
+				if (cell == null) {
+					cell = new ArrayList<Entry>(4);
+					fCells[idx] = cell;
+				}
+				cell.add(aEntry);
+			}
+		}
+	}
+
+	public void addNode(RTLNode aNode, int aX, int aY, int aW, int aH) {
+		add(new Entry(aX, aY, aX + aW, aY + aH, aNode));
+	}
+
+	/**
+	 * Record something that has been drawn, given by two corners in any
+	 * order (a line segment is recorded by its bounding box).
+	 */
+
+	public void addShape(int aX1, int aY1, int aX2, int aY2) {
+		add(new Entry(Math.min(aX1, aX2), Math.min(aY1, aY2), Math.max(aX1, aX2), Math.max(aY1, aY2), null));
+	}
+
+	/**
+	 * Called after the first full paint, only from then on the index knows
+	 * about everything the layout draws.
+	 */
+
+	public void setComplete() {
+		fComplete = true;
+	}
+
+	public boolean isComplete() {
+		return fComplete;
+	}
+
+	/**
+	 * @return the node whose box contains the given point (within aTolerance),
+	 *         null if there is none
+	 */
+
+	public RTLNode findNode(int aX, int aY, int aTolerance) {
+		Entry e = find(aX - aTolerance, aY - aTolerance, aX + aTolerance, aY + aTolerance, true);
+		return e != null ? e.fNode : null;
+	}
+
+	/**
+	 * @return true if anything (node or recorded shape) touches the given
+	 *         rectangle
+	 */
+
+	public boolean intersects(int aX1, int aY1, int aX2, int aY2) {
+		return find(aX1, aY1, aX2, aY2, false) != null;
+	}
+
+	private Entry find(int aX1, int aY1, int aX2, int aY2, boolean aNodesOnly) {
+		int c2 = col(aX2);
+		int r2 = row(aY2);
+		for (int r = row(aY1); r <= r2; r++) {
+			for (int c = col(aX1); c <= c2; c++) {
+				ArrayList<Entry> cell = fCells[r * fCols + c];
+				if (cell == null) {
+					continue;
+				}
+				for (Entry e : cell) {
+					if ((!aNodesOnly || e.fNode != null) && e.intersects(aX1, aY1, aX2, aY2)) {
+						return e;
+					}
+				}
+			}
+		}
+		return null;
+	}
+}
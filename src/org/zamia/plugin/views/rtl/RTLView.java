@@ -8,7 +8,20 @@
 
 package org.zamia.plugin.views.rtl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.ITreeSelection;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
@@ -67,7 +80,6 @@ import org.zamia.rtl.RTLVisualGraphSelectionProvider;
 import org.zamia.util.Position;
 import org.zamia.util.SimpleRegexp;
 import org.zamia.vg.VGBox;
-import org.zamia.vg.VGGC;
 import org.zamia.vg.VGLayout;
 
 /**
@@ -102,14 +114,15 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 	private RTLModule fRTLM;
 
-	RTLVisualGraphContentProvider fContentProvider = null;
-
-	RTLVisualGraphLabelProvider fLabelProvider = null;
+	private RTLVisualState fVisualState = null;
 
 	private ColorScheme fColorScheme;
 
 	private VGLayout<RTLNode, RTLPort, RTLSignal> fLayout;
 
+	// spatial index over fLayout, completed by the first paint
+	private RTLHitIndex fHitIndex;
+
 	//	private HashMap<RTLSignal, Position> annotationPositions;
 
 	private Display display;
@@ -120,21 +133,42 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 	private Label fSelectionLabel;
 
-	// offscreen image
-	public final static int OFFSCREEN_WIDTH = 4096;
+	private ToolItem fShowHiddenHitsItem;
 
-	public final static int OFFSCREEN_HEIGHT = 4096;
+	// search hits which are not part of the current layout
+	private final LinkedHashSet<RTLNode> fHiddenHits = new LinkedHashSet<RTLNode>();
 
-	private Image fOffscreenImage;
+	// name -> nodes / signals of fRTLM, built on first search
+	private HashMap<String, ArrayList<RTLNode>> fNodesByName;
+
+	private HashMap<String, ArrayList<RTLSignal>> fSignalsByName;
+
+	// offscreen tiles
+	public final static int TILE_SIZE = 512;
 
-	private boolean fOffscreenValid;
+	private final static int MAX_CACHED_TILES = 64;
 
-	private Point fOffscreenOffset;
+	// rendered tiles at the current zoom, keyed by row << 32 | column
+	private final LinkedHashMap<Long, Image> fTiles = new LinkedHashMap<Long, Image>(MAX_CACHED_TILES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
 
-	private Point fOffscreenSize;
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Image> aEldest) {
+			if (size() > MAX_CACHED_TILES) {
+				aEldest.getValue().dispose();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	// text measurement outside of tile painting
+	private Image fOffscreenImage;
 
 	private GC fOffscreenGC;
 
+	private Point fOffscreenOffset; // origin of the tile being painted
+
 	private Position fTotalSize; // size of unzoomed circuit
 
 	private Point fVisibleSize; // size of canvas
@@ -166,10 +200,85 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 	private RTLVisualGraphSelectionProvider fSelectionProvider;
 
-	private VGGC fGC;
+	private SWTGC fGC;
 
 	private IProject fPrj;
 
+	private PlaceAndRouteJob fPlaceAndRouteJob;
+
+	private LayoutGC fLayoutGC;
+
+	/**
+	 * Computes a new layout in the background. The current layout stays
+	 * visible (and interactive) until the new one is swapped in on the UI
+	 * thread. Canceling only discards the result: VGLayout itself cannot be
+	 * interrupted.
+	 * 
+	 * The job works on a content and label provider of its own and measures
+	 * text with the zoom 1 fonts of a LayoutGC, nothing it reads is changed
+	 * by the UI thread.
+	 */
+
+	private class PlaceAndRouteJob extends Job {
+
+		private final RTLModule fModule;
+
+		private final RTLVisualGraphContentProvider fContent;
+
+		private final RTLVisualGraphLabelProvider fLabels;
+
+		private final LayoutGC fMeasureGC;
+
+		private final Job fPrevious;
+
+		public PlaceAndRouteJob(RTLModule aModule, RTLVisualGraphContentProvider aContent, RTLVisualGraphLabelProvider aLabels, LayoutGC aMeasureGC, Job aPrevious) {
+			super("Place and route...");
+			fModule = aModule;
+			fContent = aContent;
+			fLabels = aLabels;
+			fMeasureGC = aMeasureGC;
+			fPrevious = aPrevious;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor aMonitor) {
+
+			aMonitor.beginTask("Computing RTL layout", IProgressMonitor.UNKNOWN);
+
+			try {
+				// the LayoutGC font state is shared, wait until a canceled predecessor is done
+				if (fPrevious != null) {
+					fPrevious.join();
+				}
+
+				if (aMonitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+
+				final VGLayout<RTLNode, RTLPort, RTLSignal> layout = new VGLayout<RTLNode, RTLPort, RTLSignal>(fContent, fLabels, fMeasureGC);
+
+				if (aMonitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+
+				display.asyncExec(new Runnable() {
+					public void run() {
+						installLayout(PlaceAndRouteJob.this, fModule, layout);
+					}
+				});
+
+			} catch (InterruptedException e) {
+				return Status.CANCEL_STATUS;
+			} catch (Throwable t) {
+				el.logException(t);
+			} finally {
+				aMonitor.done();
+			}
+
+			return Status.OK_STATUS;
+		}
+	}
+
 	private class MouseHandler implements MouseListener, MouseMoveListener {
 
 		// private int grabEvents;
@@ -442,14 +551,12 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 		 * canvas
 		 ***********************************************************************/
 
-		fOffscreenSize = new Point(OFFSCREEN_WIDTH, OFFSCREEN_HEIGHT);
-		fOffscreenImage = new Image(display, fOffscreenSize.x, fOffscreenSize.y);
+		fOffscreenImage = new Image(display, 1, 1);
 		fOffscreenGC = new GC(fOffscreenImage);
 
 		fGC = new SWTGC(fOffscreenGC, this);
 
 		fOffscreenOffset = new Point(0, 0);
-		fOffscreenValid = false;
 
 		MouseHandler mouseHandler = new MouseHandler();
 		fCanvas.addMouseListener(mouseHandler);
@@ -513,11 +620,10 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 			public void widgetSelected(SelectionEvent e) {
 
-				if (fContentProvider != null) {
-					fContentProvider.setDynamicMode(!fContentProvider.isDynamicMode());
+				if (fVisualState != null) {
+					fVisualState.setDynamicMode(!fVisualState.isDynamicMode());
 
 					placeAndRoute();
-					updateZoom(fZoomWidget.getFactor());
 				}
 			}
 		});
@@ -529,12 +635,11 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 		ti.addSelectionListener(new SelectionAdapter() {
 			public void widgetSelected(SelectionEvent e) {
 
-				if (fContentProvider != null) {
-					fContentProvider.setDynamicMode(true);
-					fContentProvider.clearVisibility();
+				if (fVisualState != null) {
+					fVisualState.setDynamicMode(true);
+					fVisualState.clearVisibility();
 
 					placeAndRoute();
-					updateZoom(fZoomWidget.getFactor());
 				}
 			}
 		});
@@ -574,6 +679,16 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 			}
 		});
 
+		fShowHiddenHitsItem = new ToolItem(tb, SWT.NONE);
+		fShowHiddenHitsItem.setText("+");
+		fShowHiddenHitsItem.setToolTipText("Show search hits which are not placed yet (computes a new layout)");
+		fShowHiddenHitsItem.setEnabled(false);
+		fShowHiddenHitsItem.addSelectionListener(new SelectionAdapter() {
+			public void widgetSelected(SelectionEvent e) {
+				showHiddenHits();
+			}
+		});
+
 		fSelectionLabel = new Label(statusBox, SWT.NONE);
 		fSelectionLabel.setText("");
 		gd = new GridData();
@@ -645,14 +760,53 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 		if (fRTLM == null)
 			return;
 
+		Job previous = fPlaceAndRouteJob;
+		if (previous != null) {
+			previous.cancel();
+		}
+
+		if (fLayoutGC == null) {
+			fLayoutGC = new LayoutGC(display);
+		}
+
+		fPlaceAndRouteJob = new PlaceAndRouteJob(fRTLM, fVisualState.createContentProvider(fRTLM), new RTLVisualGraphLabelProvider(fRTLM), fLayoutGC, previous);
+		fPlaceAndRouteJob.setPriority(Job.LONG);
+		fPlaceAndRouteJob.schedule();
+	}
+
+	private void installLayout(PlaceAndRouteJob aJob, RTLModule aModule, VGLayout<RTLNode, RTLPort, RTLSignal> aLayout) {
+
+		// superseded by a newer job or a different module?
+		if (aJob != fPlaceAndRouteJob || aModule != fRTLM || fControl.isDisposed())
+			return;
+
+		fPlaceAndRouteJob = null;
+
 		reset();
 		resizeFonts();
 
-		fLayout = new VGLayout<RTLNode, RTLPort, RTLSignal>(fContentProvider, fLabelProvider, fGC);
-
+		fLayout = aLayout;
 		fTotalSize = fLayout.getTotalSize();
+		fHitIndex = createHitIndex(aModule, aLayout);
 
 		handleResize();
+		updateZoom(fZoomWidget.getFactor());
+	}
+
+	private RTLHitIndex createHitIndex(RTLModule aModule, VGLayout<RTLNode, RTLPort, RTLSignal> aLayout) {
+
+		RTLHitIndex index = new RTLHitIndex((int) fTotalSize.getX(), (int) fTotalSize.getY());
+
+		int n = aModule.getNumNodes();
+		for (int i = 0; i < n; i++) {
+			RTLNode node = aModule.getNode(i);
+			VGBox<RTLNode, RTLPort, RTLSignal> box = aLayout.getNodeBox(node);
+			if (box != null) {
+				index.addNode(node, (int) box.getXPos(), (int) box.getYPos(), box.getWidth(), box.getHeight());
+			}
+		}
+
+		return index;
 	}
 
 	private void reset() {
@@ -664,64 +818,119 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 		fZoomFactor = 1.0;
 	}
 
-	private void paintOffscreen(GC aOffscreenGC) {
-		Font oldfont = aOffscreenGC.getFont();
-		int fontSize = (int) (8.0 * getZoomFactor());
-
-		if (fontSize < 2)
-			fontSize = 2;
-		
-		aOffscreenGC.setFont(getNormalFont());
+	private static Long tileKey(int aCol, int aRow) {
+		return Long.valueOf(((long) aRow << 32) | (aCol & 0xffffffffL));
+	}
 
-		aOffscreenGC.setBackground(fColorScheme.getBackgroundColor());
-		aOffscreenGC.setLineWidth((int) (2 * getZoomFactor()));
-		aOffscreenGC.fillRectangle(0, 0, fOffscreenSize.x, fOffscreenSize.y);
+	/**
+	 * Render the tiles of the given range that are not cached yet. All of
+	 * them are painted into one image by a single layout paint, which is then
+	 * cut into tiles, so the cost of walking the layout does not grow with
+	 * the number of tiles.
+	 */
 
-		if (fLayout != null) {
-			fLayout.paint(fSelectionProvider);
+	private void renderTiles(int aC1, int aR1, int aC2, int aR2) {
+
+		// bounding range of the missing tiles
+		int c1 = Integer.MAX_VALUE, r1 = Integer.MAX_VALUE, c2 = Integer.MIN_VALUE, r2 = Integer.MIN_VALUE;
+		for (int r = aR1; r <= aR2; r++) {
+			for (int c = aC1; c <= aC2; c++) {
+				if (!fTiles.containsKey(tileKey(c, r))) {
+					c1 = Math.min(c1, c);
+					r1 = Math.min(r1, r);
+					c2 = Math.max(c2, c);
+					r2 = Math.max(r2, r);
+				}
+			}
 		}
-
-		if (!oldfont.isDisposed()) {
-			aOffscreenGC.setFont(oldfont);
+		if (c1 > c2) {
+			return;
 		}
-	}
 
-	private void updateOffscreen(GC aOffscreenGC) {
-
-		// update offscreenOffset if necessary, repaint in that case
+		int w = (c2 - c1 + 1) * TILE_SIZE;
+		int h = (r2 - r1 + 1) * TILE_SIZE;
+
+		Image image = new Image(display, w, h);
+		try {
+			GC gc = new GC(image);
+			try {
+				gc.setFont(getNormalFont());
+				gc.setBackground(fColorScheme.getBackgroundColor());
+				gc.setLineWidth((int) (2 * getZoomFactor()));
+				gc.fillRectangle(0, 0, w, h);
+
+				// the first paint records the hit index, it sees the whole layout
+				RTLHitIndex recorder = fHitIndex != null && !fHitIndex.isComplete() ? fHitIndex : null;
+
+				if (fLayout != null && (recorder != null || isRangeUsed(c1, r1, c2, r2))) {
+
+					GC oldGC = fGC.setGC(gc);
+					fGC.setRecorder(recorder);
+					fOffscreenOffset = new Point(c1 * TILE_SIZE, r1 * TILE_SIZE);
+					try {
+						fLayout.paint(fSelectionProvider);
+					} finally {
+						fOffscreenOffset = new Point(0, 0);
+						fGC.setRecorder(null);
+						fGC.setGC(oldGC);
+					}
+					if (recorder != null) {
+						recorder.setComplete();
+					}
+				}
+			} finally {
+				gc.dispose();
+			}
 
-		Point offset = new Point(fOffscreenOffset.x, fOffscreenOffset.y);
+			for (int r = r1; r <= r2; r++) {
+				for (int c = c1; c <= c2; c++) {
+					Long key = tileKey(c, r);
+					if (fTiles.containsKey(key)) {
+						continue;
+					}
+					Image tile = new Image(display, TILE_SIZE, TILE_SIZE);
+					GC tgc = new GC(tile);
+					try {
+						tgc.drawImage(image, (c - c1) * TILE_SIZE, (r - r1) * TILE_SIZE, TILE_SIZE, TILE_SIZE, 0, 0, TILE_SIZE, TILE_SIZE);
+					} finally {
+						tgc.dispose();
+					}
+					fTiles.put(key, tile);
+				}
+			}
+		} finally {
+			image.dispose();
+		}
+	}
 
-		if (offset.x > fVisibleOffset.x)
-			offset.x = fVisibleOffset.x - fOffscreenSize.x / 2;
-		if (offset.y > fVisibleOffset.y)
-			offset.y = fVisibleOffset.y - fOffscreenSize.x / 2;
+	private boolean isRangeUsed(int aC1, int aR1, int aC2, int aR2) {
+		if (fHitIndex == null || !fHitIndex.isComplete()) {
+			return true;
+		}
 
-		int w = fOffscreenSize.x;
-		int h = fOffscreenSize.y;
+		// a little slack for line widths and text extents
+		int x1 = (int) (aC1 * TILE_SIZE / getZoomFactor() - LEFT_MARGIN) - 2;
+		int y1 = (int) (aR1 * TILE_SIZE / getZoomFactor() - TOP_MARGIN) - 2;
+		int x2 = (int) ((aC2 + 1) * TILE_SIZE / getZoomFactor() - LEFT_MARGIN) + 2;
+		int y2 = (int) ((aR2 + 1) * TILE_SIZE / getZoomFactor() - TOP_MARGIN) + 2;
 
-		if ((fVisibleOffset.x + fVisibleSize.x) >= offset.x + w)
-			offset.x = fVisibleOffset.x - fOffscreenSize.x / 2;
-		if ((fVisibleOffset.y + fVisibleSize.y) >= offset.y + h)
-			offset.y = fVisibleOffset.y - fOffscreenSize.x / 2;
+		return fHitIndex.intersects(x1, y1, x2, y2);
+	}
 
-		if (offset.x < 0)
-			offset.x = 0;
-		if (offset.y < 0)
-			offset.y = 0;
+	/**
+	 * Throw away all rendered tiles, needed whenever zoom, layout or
+	 * highlighting change.
+	 */
 
-		if ((offset.x != fOffscreenOffset.x) || (offset.y != fOffscreenOffset.y)) {
-			// System.out.println ("offscreenOffset updated to "+offset);
-			fOffscreenValid = false;
-			fOffscreenOffset = offset;
+	private void invalidateTiles() {
+		for (Image tile : fTiles.values()) {
+			tile.dispose();
 		}
+		fTiles.clear();
+	}
 
-		if (fOffscreenValid)
-			return;
-
-		paintOffscreen(aOffscreenGC);
-
-		fOffscreenValid = true;
+	private static int tileIndex(int aPos) {
+		return aPos >= 0 ? aPos / TILE_SIZE : -((-aPos - 1) / TILE_SIZE) - 1;
 	}
 
 	private void initScrollBars() {
@@ -744,12 +953,48 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 	@Override
 	public void paintControl(PaintEvent aPaintEvent) {
 
-		updateOffscreen(fOffscreenGC);
-
-		int ox = fVisibleOffset.x - fOffscreenOffset.x;
-		int oy = fVisibleOffset.y - fOffscreenOffset.y;
 		Rectangle clientRect = fCanvas.getClientArea();
-		aPaintEvent.gc.drawImage(fOffscreenImage, ox, oy, fVisibleSize.x, fVisibleSize.y, clientRect.x, clientRect.y, fVisibleSize.x, fVisibleSize.y);
+
+		// only the tiles covering the damaged area, in zoomed coordinates
+		int c1 = tileIndex(fVisibleOffset.x + aPaintEvent.x - clientRect.x);
+		int r1 = tileIndex(fVisibleOffset.y + aPaintEvent.y - clientRect.y);
+		int c2 = tileIndex(fVisibleOffset.x + aPaintEvent.x + aPaintEvent.width - clientRect.x);
+		int r2 = tileIndex(fVisibleOffset.y + aPaintEvent.y + aPaintEvent.height - clientRect.y);
+
+		boolean missing = false;
+		for (int r = r1; r <= r2 && !missing; r++) {
+			for (int c = c1; c <= c2 && !missing; c++) {
+				missing = !fTiles.containsKey(tileKey(c, r));
+			}
+		}
+
+		if (missing) {
+			// render the whole viewport in one go, with one tile of slack
+			// around it so scrolling finds its tiles rendered
+			int vc1 = tileIndex(fVisibleOffset.x);
+			int vr1 = tileIndex(fVisibleOffset.y);
+			int vc2 = tileIndex(fVisibleOffset.x + clientRect.width);
+			int vr2 = tileIndex(fVisibleOffset.y + clientRect.height);
+			if ((vc2 - vc1 + 3) * (vr2 - vr1 + 3) <= MAX_CACHED_TILES) {
+				vc1--;
+				vr1--;
+				vc2++;
+				vr2++;
+			}
+			renderTiles(Math.min(vc1, c1), Math.min(vr1, r1), Math.max(vc2, c2), Math.max(vr2, r2));
+		}
+
+		for (int r = r1; r <= r2; r++) {
+			for (int c = c1; c <= c2; c++) {
+				Image tile = fTiles.get(tileKey(c, r));
+				if (tile == null) {
+					// evicted again, viewport holds more than MAX_CACHED_TILES tiles
+					renderTiles(c, r, c, r);
+					tile = fTiles.get(tileKey(c, r));
+				}
+				aPaintEvent.gc.drawImage(tile, clientRect.x + c * TILE_SIZE - fVisibleOffset.x, clientRect.y + r * TILE_SIZE - fVisibleOffset.y);
+			}
+		}
 	}
 
 	/*
@@ -888,14 +1133,20 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 		fRTLM = aRTLM;
 
-		fOffscreenValid = false;
+		fNodesByName = null;
+		fSignalsByName = null;
+		fHiddenHits.clear();
+		fShowHiddenHitsItem.setEnabled(false);
+
+		invalidateTiles();
 		if (fRTLM != null) {
 
-			fContentProvider = new RTLVisualGraphContentProvider(fRTLM);
-			fLabelProvider = new RTLVisualGraphLabelProvider(fRTLM);
+			fVisualState = new RTLVisualState(new RTLVisualGraphContentProvider(fRTLM).isDynamicMode());
+
+			fLayout = null;
+			fHitIndex = null;
 
 			placeAndRoute();
-			updateZoom(fZoomWidget.getFactor());
 
 			fLocationText.setText("/");
 
@@ -967,7 +1218,7 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 			vertical.setValues(fVisibleOffset.y, 0, fZommedSize.y, fVisibleSize.y, 8, fVisibleSize.y);
 		}
 
-		fOffscreenValid = false;
+		invalidateTiles();
 
 		resizeFonts();
 
@@ -1021,7 +1272,7 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 		fSelectionProvider.setNodeSelection(aNode, true);
 
-		fOffscreenValid = false;
+		invalidateTiles();
 		fCanvas.redraw();
 	}
 
@@ -1071,15 +1322,59 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 	void addHighlight(RTLSignal aSignal) {
 		fSelectionProvider.setSignalSelection(aSignal, true);
-		fOffscreenValid = false;
+		invalidateTiles();
 		fCanvas.redraw();
 	}
 
+	private void buildNameIndex() {
+
+		fNodesByName = new HashMap<String, ArrayList<RTLNode>>();
+		fSignalsByName = new HashMap<String, ArrayList<RTLSignal>>();
+
+		int n = fRTLM.getNumNodes();
+		for (int i = 0; i < n; i++) {
+			RTLNode node = fRTLM.getNode(i);
+			ArrayList<RTLNode> nodes = fNodesByName.get(node.getInstanceName());
+			if (nodes == null) {
+				nodes = new ArrayList<RTLNode>(1);
+				fNodesByName.put(node.getInstanceName(), nodes);
+			}
+			nodes.add(node);
+		}
+
+		n = fRTLM.getNumSignals();
+		for (int i = 0; i < n; i++) {
+			RTLSignal s = fRTLM.getSignal(i);
+			ArrayList<RTLSignal> signals = fSignalsByName.get(s.getId());
+			if (signals == null) {
+				signals = new ArrayList<RTLSignal>(1);
+				fSignalsByName.put(s.getId(), signals);
+			}
+			signals.add(s);
+		}
+	}
+
+	/**
+	 * Highlights matching nodes and signals in the current layout without
+	 * computing a new one. Matching nodes which are not placed are kept in
+	 * fHiddenHits until the user asks for them to be shown. Only hiding
+	 * placed nodes ('-' prefix) triggers a re-layout.
+	 */
+
 	private void doSearch(String aRegexp) {
 		if (fRTLM == null)
 			return;
 
 		clearHighlight();
+		fHiddenHits.clear();
+
+		if (fNodesByName == null) {
+			buildNameIndex();
+		}
+
+		boolean relayout = false;
+		int numHits = 0;
+		VGBox<RTLNode, RTLPort, RTLSignal> firstBox = null;
 
 		String regexps[] = aRegexp.split(" ");
 
@@ -1100,74 +1395,137 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 				regexp = regexp.substring(1);
 			}
 
-			int n = fRTLM.getNumNodes();
-			for (int i = 0; i < n; i++) {
-				RTLNode sub = fRTLM.getNode(i);
-				if (sub.getInstanceName().matches(regexp)) {
+			Matcher matcher;
+			try {
+				matcher = Pattern.compile(regexp).matcher("");
+			} catch (PatternSyntaxException e) {
+				fSelectionLabel.setText("Invalid search pattern: " + regexps[j]);
+				continue;
+			}
+
+			for (Map.Entry<String, ArrayList<RTLNode>> entry : fNodesByName.entrySet()) {
+				if (!matcher.reset(entry.getKey()).matches()) {
+					continue;
+				}
+				for (RTLNode sub : entry.getValue()) {
+
+					VGBox<RTLNode, RTLPort, RTLSignal> box = fLayout != null ? fLayout.getNodeBox(sub) : null;
+
 					if (!inverse) {
 
-						fContentProvider.setNodeVisible(sub, true);
 						fSelectionProvider.setNodeSelection(sub, true);
+						numHits++;
+
+						if (box == null) {
+							fHiddenHits.add(sub);
+						} else if (firstBox == null) {
+							firstBox = box;
+						}
 
 					} else {
 
-						fContentProvider.setNodeVisible(sub, false);
+						fVisualState.setNodeVisible(sub, false);
 						fSelectionProvider.setNodeSelection(sub, false);
+						fHiddenHits.remove(sub);
 
+						relayout |= box != null;
 					}
 				}
 			}
 
-			n = fRTLM.getNumSignals();
-			for (int i = 0; i < n; i++) {
-				RTLSignal s = fRTLM.getSignal(i);
-				if (s.getId().matches(regexp)) {
+			for (Map.Entry<String, ArrayList<RTLSignal>> entry : fSignalsByName.entrySet()) {
+				if (!matcher.reset(entry.getKey()).matches()) {
+					continue;
+				}
+				for (RTLSignal s : entry.getValue()) {
 					fSelectionProvider.setSignalSelection(s, !inverse);
+					if (!inverse) {
+						numHits++;
+					}
 				}
 			}
 		}
 
-		placeAndRoute();
-		updateZoom(fZoomWidget.getFactor());
+		fShowHiddenHitsItem.setEnabled(!fHiddenHits.isEmpty());
+		if (numHits > 0 || !fHiddenHits.isEmpty()) {
+			fSelectionLabel.setText(numHits + " hits" + (fHiddenHits.isEmpty() ? "" : ", " + fHiddenHits.size() + " not shown"));
+		}
 
-		fOffscreenValid = false;
+		if (relayout) {
+			placeAndRoute();
+		} else if (firstBox != null) {
+			scrollTo(firstBox);
+		}
+
+		invalidateTiles();
 		fCanvas.redraw();
 	}
 
+	private void showHiddenHits() {
+		if (fRTLM == null || fHiddenHits.isEmpty())
+			return;
+
+		for (RTLNode node : fHiddenHits) {
+			fVisualState.setNodeVisible(node, true);
+		}
+		fHiddenHits.clear();
+		fShowHiddenHitsItem.setEnabled(false);
+
+		placeAndRoute();
+	}
+
+	private void scrollTo(VGBox<RTLNode, RTLPort, RTLSignal> aBox) {
+
+		int offx = tX(aBox.getXPos() + aBox.getWidth() / 2) - fVisibleSize.x / 2;
+		int offy = tY(aBox.getYPos() + aBox.getHeight() / 2) - fVisibleSize.y / 2;
+		offx = offx < 0 ? 0 : offx;
+		offy = offy < 0 ? 0 : offy;
+
+		fHScrollBar.setSelection(offx);
+		fVScrollBar.setSelection(offy);
+
+		handleResize();
+	}
+
 	private boolean handleMouseDown(int aMX, int aMY, int aButton) {
-		if (fRTLM == null) {
+		if (fRTLM == null || fLayout == null) {
 			return false;
 		}
 
 		// project coordinates, find out what has been hit
 
-		int mx = (int) ((aMX + fVisibleOffset.x - fOffscreenOffset.x) / getZoomFactor() - LEFT_MARGIN);
-		int my = (int) ((aMY + fVisibleOffset.y - fOffscreenOffset.y) / getZoomFactor() - TOP_MARGIN);
+		int mx = toLayoutX(aMX);
+		int my = toLayoutY(aMY);
+		int tolerance = (int) (1.0 / getZoomFactor());
 
 		clearHighlight();
 
-		RTLPort p = fLayout.checkHitExpandablePort(mx, my, (int) (1.0 / getZoomFactor()));
+		// nothing has been drawn here: no need to ask the layout
+		if (fHitIndex != null && fHitIndex.isComplete() && !fHitIndex.intersects(mx - tolerance - 1, my - tolerance - 1, mx + tolerance + 1, my + tolerance + 1)) {
+			return aButton == 1;
+		}
+
+		RTLPort p = fLayout.checkHitExpandablePort(mx, my, tolerance);
 		if (p != null) {
 
 			RTLSignal s = p.getSignal();
 
-			fContentProvider.setPortExpanded(p, true);
+			fVisualState.setPortExpanded(p, true);
 
 			int n = s.getNumConns();
 			for (int i = 0; i < n; i++) {
 				RTLPort conn = s.getConn(i);
 
-				fContentProvider.setPortExpanded(conn, true);
-				fContentProvider.setNodeVisible(conn.getNode(), true);
+				fVisualState.setPortExpanded(conn, true);
+				fVisualState.setNodeVisible(conn.getNode(), true);
 			}
 
 			placeAndRoute();
-			updateZoom(fZoomWidget.getFactor());
 
 			return aButton == 1;
 		}
 
-		RTLSignal s = fLayout.checkHitSignal(mx, my, (int) (1.0 / getZoomFactor()));
+		RTLSignal s = fLayout.checkHitSignal(mx, my, tolerance);
 
 		if (s != null) {
 			fSelectionLabel.setText(s.getId());
@@ -1176,7 +1534,7 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 			return aButton == 1;
 		}
 
-		RTLNode n = fLayout.checkHitNode(mx, my, (int) (1.0 / getZoomFactor()));
+		RTLNode n = checkHitNode(mx, my, tolerance);
 
 		if (n != null) {
 			fSelectionLabel.setText(n.getInstanceName());
@@ -1189,11 +1547,14 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 	}
 
 	private void handleMouseDoubleClick(int aX, int aY) {
+		if (fLayout == null)
+			return;
+
 		// project coordinates, find out what has been hit
-		int mx = aX + fVisibleOffset.x - fOffscreenOffset.x;
-		int my = aY + fVisibleOffset.y - fOffscreenOffset.y;
+		int mx = toLayoutX(aX);
+		int my = toLayoutY(aY);
 
-		RTLNode n = fLayout.checkHitNode(mx, my, (int) (1.0 / getZoomFactor()));
+		RTLNode n = checkHitNode(mx, my, (int) (1.0 / getZoomFactor()));
 
 		if (n != null) {
 
@@ -1205,6 +1566,26 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 
 	}
 
+	// canvas -> layout coordinates, inverse of tX() plus the visible offset
+	private int toLayoutX(int aX) {
+		return (int) ((aX + fVisibleOffset.x) / getZoomFactor() - LEFT_MARGIN);
+	}
+
+	// canvas -> layout coordinates, inverse of tY() plus the visible offset
+	private int toLayoutY(int aY) {
+		return (int) ((aY + fVisibleOffset.y) / getZoomFactor() - TOP_MARGIN);
+	}
+
+	private RTLNode checkHitNode(int aX, int aY, int aTolerance) {
+		if (fHitIndex != null) {
+			RTLNode n = fHitIndex.findNode(aX, aY, aTolerance);
+			if (n != null) {
+				return n;
+			}
+		}
+		return fLayout.checkHitNode(aX, aY, aTolerance);
+	}
+
 	ColorScheme getColorScheme() {
 		return fColorScheme;
 	}
@@ -1236,4 +1617,14 @@ public class RTLView extends ViewPart implements ZoomObserver, PaintListener {
 	@Override
 	public void setFocus() {
 	}
+
+	@Override
+	public void dispose() {
+		invalidateTiles();
+		if (fOffscreenGC != null) {
+			fOffscreenGC.dispose();
+			fOffscreenImage.dispose();
+		}
+		super.dispose();
+	}
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.rtl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.zamia.rtl.RTLModule;
+import org.zamia.rtl.RTLNode;
+import org.zamia.rtl.RTLPort;
+import org.zamia.rtl.RTLVisualGraphContentProvider;
+
+
+/**
+ * What the user has made visible in the RTL view: dynamic mode, visible
+ * nodes and expanded ports.
+ *
+ * Only touched on the UI thread. Each place-and-route job gets a content
+ * provider of its own created from it, so the settings never change
+ * underneath a running layout.
+ */
+
+public class RTLVisualState {
+
+	private boolean fDynamicMode;
+
+	private boolean fCleared = false;
+
+	// nodes (visible) and ports (expanded), in the order they were last changed
+	private final LinkedHashMap<Object, Boolean> fChanges = new LinkedHashMap<Object, Boolean>();
+
+	public RTLVisualState(boolean aDynamicMode) {
+		fDynamicMode = aDynamicMode;
+	}
+
+	public boolean isDynamicMode() {
+		return fDynamicMode;
+	}
+
+	public void setDynamicMode(boolean aDynamicMode) {
+		fDynamicMode = aDynamicMode;
+	}
+
+	public void clearVisibility() {
+		fCleared = true;
+		fChanges.clear();
+	}
+
+	public void setNodeVisible(RTLNode aNode, boolean aVisible) {
+		fChanges.remove(aNode);
+		fChanges.put(aNode, aVisible);
+	}
+
+	public void setPortExpanded(RTLPort aPort, boolean aExpanded) {
+		fChanges.remove(aPort);
+		fChanges.put(aPort, aExpanded);
+	}
+
+	public RTLVisualGraphContentProvider createContentProvider(RTLModule aModule) {
+
+		RTLVisualGraphContentProvider cp = new RTLVisualGraphContentProvider(aModule);
+
+		cp.setDynamicMode(fDynamicMode);
+		if (fCleared) {
+			cp.clearVisibility();
+		}
+
+		for (Map.Entry<Object, Boolean> entry : fChanges.entrySet()) {
+			Object o = entry.getKey();
+			if (o instanceof RTLNode) {
+				cp.setNodeVisible((RTLNode) o, entry.getValue());
+			} else {
+				cp.setPortExpanded((RTLPort) o, entry.getValue());
+			}
+		}
+
+		return cp;
+	}
+}
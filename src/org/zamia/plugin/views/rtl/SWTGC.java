@@ -27,11 +27,33 @@ public class SWTGC implements VGGC {
 
 	private int fLineWidth = 1;
 
+	private RTLHitIndex fRecorder;
+
 	public SWTGC(GC aGC, RTLView aRTLView) {
 		fGC = aGC;
 		fRTLView = aRTLView;
 	}
 
+	/**
+	 * Redirect painting to another GC (an offscreen tile).
+	 * 
+	 * @return the previous GC
+	 */
+
+	public GC setGC(GC aGC) {
+		GC old = fGC;
+		fGC = aGC;
+		return old;
+	}
+
+	/**
+	 * While set, everything drawn is also recorded in the given index.
+	 */
+
+	public void setRecorder(RTLHitIndex aRecorder) {
+		fRecorder = aRecorder;
+	}
+
 	@Override
 	public void start(int aWidth, int aHeight) {
 	}
@@ -124,16 +146,25 @@ public class SWTGC implements VGGC {
 
 	@Override
 	public void drawLine(int aX1, int aY1, int aX2, int aY2) {
+		if (fRecorder != null) {
+			fRecorder.addShape(aX1, aY1, aX2, aY2);
+		}
 		fGC.drawLine(fRTLView.tX(aX1), fRTLView.tY(aY1), fRTLView.tX(aX2), fRTLView.tY(aY2));
 	}
 
 	@Override
 	public void drawOval(int aX, int aY, int aXR, int aYR) {
+		if (fRecorder != null) {
+			fRecorder.addShape(aX - aXR, aY - aYR, aX + aXR, aY + aYR);
+		}
 		fGC.drawOval(fRTLView.tX(aX - aXR), fRTLView.tY(aY - aYR), fRTLView.tW(2 * aXR), fRTLView.tH(2 * aYR));
 	}
 
 	@Override
 	public void fillOval(int aX, int aY, int aXR, int aYR) {
+		if (fRecorder != null) {
+			fRecorder.addShape(aX - aXR, aY - aYR, aX + aXR, aY + aYR);
+		}
 		fGC.fillOval(fRTLView.tX(aX - aXR), fRTLView.tY(aY - aYR), fRTLView.tW(2 * aXR), fRTLView.tH(2 * aYR));
 	}
 
@@ -142,6 +173,11 @@ public class SWTGC implements VGGC {
 
 		int h = fGC.getFontMetrics().getAscent();
 
+		if (fRecorder != null) {
+			double zf = fRTLView.getZoomFactor();
+			fRecorder.addShape(aX, aY - (int) (h / zf), aX + (int) (fGC.textExtent(aLabel).x / zf), aY);
+		}
+
 		//		int h = (int) (fGC.textExtent(aLabel).x / fRTLView.getZoomFactor());
 
 		fGC.drawText(aLabel, fRTLView.tX(aX), fRTLView.tY(aY) - h, aTransparent);
@@ -149,11 +185,17 @@ public class SWTGC implements VGGC {
 
 	@Override
 	public void drawRectangle(int aX, int aY, int aW, int aH) {
+		if (fRecorder != null) {
+			fRecorder.addShape(aX, aY, aX + aW, aY + aH);
+		}
 		fGC.drawRectangle(fRTLView.tX(aX), fRTLView.tY(aY), fRTLView.tW(aW), fRTLView.tH(aH));
 	}
 
 	@Override
 	public void fillRectangle(int aX, int aY, int aW, int aH) {
+		if (fRecorder != null) {
+			fRecorder.addShape(aX, aY, aX + aW, aY + aH);
+		}
 		fGC.fillRectangle(fRTLView.tX(aX), fRTLView.tY(aY), fRTLView.tW(aW), fRTLView.tH(aH));
 		fGC.drawRectangle(fRTLView.tX(aX), fRTLView.tY(aY), fRTLView.tW(aW), fRTLView.tH(aH));
 	}
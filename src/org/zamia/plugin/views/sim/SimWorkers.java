@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.sim;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+
+/**
+ * Worker threads the waveform viewer uses to query the simulator
+ * concurrently. Tasks must not touch SWT. Shut down when the plugin stops.
+ *
+ * Each task creates a cursor of its own, a cursor is never shared between
+ * threads. Cursors of one simulator keep their position to themselves and
+ * are used concurrently by the view anyway: the cursor behind the value
+ * column is read on the UI thread while WaveformPaintJob and
+ * GotoTransitionJob use cursors of their own on job threads.
+ */
+
+public class SimWorkers {
+
+	public static final int NUM_WORKERS = Runtime.getRuntime().availableProcessors();
+
+	private static ExecutorService fExecutor = null;
+
+	public static synchronized ExecutorService getExecutor() {
+		if (fExecutor == null) {
+			fExecutor = Executors.newFixedThreadPool(NUM_WORKERS, new ThreadFactory() {
+				public Thread newThread(Runnable aRunnable) {
+					Thread t = new Thread(aRunnable, "Simulator worker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return fExecutor;
+	}
+
+	public static synchronized void shutdown() {
+		if (fExecutor != null) {
+			fExecutor.shutdownNow();
+			fExecutor = null;
+		}
+	}
+}
@@ -21,6 +21,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -95,6 +99,7 @@ import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.part.ViewPart;
 import org.zamia.ExceptionLogger;
 import org.zamia.SourceLocation;
@@ -156,6 +161,9 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 	private SimRunnerConfig fConfig;
 
+	// identifies the VCD dump fSimulator has been loaded from, see getVCDKey()
+	private String fVCDKey;
+
 	private Lock fSimJobLock;
 
 	private Canvas fWaveformCanvas;
@@ -222,6 +230,15 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 	private Shell fShell;
 
+	// incremented on every simulator reset, used to invalidate cached transition summaries
+	private volatile int fResetCount = 0;
+
+	// incremented whenever the waveform has to be repainted from scratch
+	private int fRepaintGeneration = 0;
+
+	// what the offscreen image shows, guarded by fOffscreenLock
+	private WaveformPaintJob.RenderState fRenderState = null;
+
 	public SimulatorView() throws ZamiaException {
 		fSimJobLock = new ReentrantLock();
 	}
@@ -254,42 +271,57 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 				fNewTime = fGotoNext ? fSimulator.getEndTime() : fSimulator.getStartTime();
 
-				IGISimCursor cursor = fSimulator.createCursor();
-
-				int n = fTraceLines.size();
-				for (int i = 0; i < n; i++) {
-
-					TraceLine tl = fTraceLines.get(i);
-
-					if (fGotoNext) {
-						BigInteger t = tl.findNextTransition(cursor, fTime, fEndTime);
+				final int n = fTraceLines.size();
+				final AtomicInteger nextTL = new AtomicInteger(0);
+				final AtomicBoolean found = new AtomicBoolean(false);
+				final IProgressMonitor monitor = aMonitor;
 
-						if (t != null && t.compareTo(fSimulator.getEndTime()) < 0) {
-
-							if (t.compareTo(fNewTime) < 0) {
-								fNewTime = t;
+				// each searcher uses its own cursor, the best time found so far
+				// is used as limit so searches on other traces stop early
+				Runnable searcher = new Runnable() {
+					public void run() {
+						IGISimCursor cursor = fSimulator.createCursor();
+						try {
+							int i;
+							while ((i = nextTL.getAndIncrement()) < n && !monitor.isCanceled()) {
+								if (search(fTraceLines.get(i), cursor)) {
+									found.set(true);
+								}
 							}
+						} catch (ZamiaException e) {
+							el.logException(e);
+						} finally {
+							cursor.dispose();
 						}
+					}
+				};
 
-					} else {
-						BigInteger t = tl.findPreviousTransition(cursor, fTime, fStartTime);
-						if (t != null) {
-
-							if (t.compareTo(fNewTime) > 0) {
-								fNewTime = t;
-							}
+				int numSearchers = Math.min(SimWorkers.NUM_WORKERS, n);
+				if (numSearchers > 1) {
+					ArrayList<Future<?>> searchers = new ArrayList<Future<?>>(numSearchers);
+					for (int i = 0; i < numSearchers; i++) {
+						searchers.add(SimWorkers.getExecutor().submit(searcher));
+					}
+					for (Future<?> f : searchers) {
+						try {
+							f.get();
+						} catch (ExecutionException e) {
+							el.logException(e);
 						}
-
 					}
+				} else {
+					searcher.run();
 				}
 
-				cursor.dispose();
-				cursor = null;
+				if (aMonitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
 
-				if (fNewTime != null && fNewTime.compareTo(fSimulator.getEndTime()) < 0) {
+				if (found.get()) {
+					final BigInteger newTime = getNewTime();
 					fDisplay.syncExec(new Runnable() {
 						public void run() {
-							moveCursor(fNewTime);
+							moveCursor(newTime);
 						}
 					});
 				} else {
@@ -309,6 +341,42 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 			return Status.OK_STATUS;
 		}
 
+		/**
+		 * @return true if aTL has a transition closer to fTime than fNewTime,
+		 *         which is then set to it
+		 */
+
+		private boolean search(TraceLine aTL, IGISimCursor aCursor) throws ZamiaException {
+
+			if (fGotoNext) {
+				BigInteger t = aTL.findNextTransition(aCursor, fTime, getNewTime());
+
+				if (t != null && t.compareTo(fSimulator.getEndTime()) < 0) {
+					synchronized (this) {
+						if (t.compareTo(fNewTime) < 0) {
+							fNewTime = t;
+							return true;
+						}
+					}
+				}
+
+			} else {
+				BigInteger t = aTL.findPreviousTransition(aCursor, fTime, getNewTime());
+				if (t != null) {
+					synchronized (this) {
+						if (t.compareTo(fNewTime) > 0) {
+							fNewTime = t;
+							return true;
+						}
+					}
+				}
+			}
+			return false;
+		}
+
+		private synchronized BigInteger getNewTime() {
+			return fNewTime;
+		}
 	}
 
 	Color getBlack() {
@@ -1526,12 +1594,18 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 				Display display = getSite().getShell().getDisplay();
 
+				// re-launching an unchanged VCD dump keeps the VCDImport that is still in memory,
+				// nothing is persisted: the first launch after a restart parses the dump again
+				final String vcdKey = fNewConfig.getSimulator() == SimRunnerConfig.SIM_VCD_IMPORT ? getVCDKey(fNewConfig) : null;
+				final IGISimulator reusedSim = vcdKey != null && vcdKey.equals(fVCDKey) && fSimulator instanceof VCDImport ? fSimulator : null;
+				fVCDKey = null;
+
 				display.syncExec(new Runnable() {
 
 					public void run() {
 						disconnect();
 
-						if (fSimulator != null) {
+						if (fSimulator != null && fSimulator != reusedSim) {
 							fSimulator.shutdown();
 							fInfoLabel.setText("Simulator is not running.");
 
@@ -1639,14 +1713,20 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 					// VCD importer
 
-					VCDImport vcdImport = new VCDImport();
-					fSimulator = vcdImport;
-
 					String filename = fConfig.getFilename();
 					try {
-						File f = new File(filename);
+						if (reusedSim != null) {
+							logger.info("SimulatorView: %s is unchanged, keeping the loaded VCDImport", filename);
+							fSimulator = reusedSim;
+						} else {
+							VCDImport vcdImport = new VCDImport();
+							fSimulator = vcdImport;
 
-						fSimulator.open(tlp, f, new PathName(fConfig.getPrefix()), zprj);
+							File f = new File(filename);
+
+							fSimulator.open(tlp, f, new PathName(fConfig.getPrefix()), zprj);
+						}
+						fVCDKey = vcdKey;
 
 						display.syncExec(new Runnable() {
 							public void run() {
@@ -1715,6 +1795,23 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		}
 	}
 
+	/**
+	 * @return key identifying the VCD dump (file, size, timestamp) and import
+	 *         parameters of aConfig, null if the file does not exist
+	 */
+	private static String getVCDKey(SimRunnerConfig aConfig) {
+		String filename = aConfig.getFilename();
+		if (filename == null) {
+			return null;
+		}
+		File f = new File(filename);
+		if (!f.exists()) {
+			return null;
+		}
+		String prj = aConfig.getProject() != null ? aConfig.getProject().getName() : "";
+		return f.getAbsolutePath() + "|" + f.length() + "|" + f.lastModified() + "|" + aConfig.getPrefix() + "|" + aConfig.getToplevel() + "|" + prj;
+	}
+
 	public void run(SimRunnerConfig aConfig, IProgressMonitor aMonitor) {
 		SimRunJob job = new SimRunJob(aConfig);
 		job.setPriority(Job.SHORT);
@@ -2234,6 +2331,7 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		fStartTime = fSimulator.getStartTime();
 		fEndTime = fSimulator.getEndTime();
 		fCursorTime = fStartTime;
+		fResetCount++;
 		fDisplay.asyncExec(new Runnable() {
 			public void run() {
 				handleResize();
@@ -2250,7 +2348,9 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		fDisplay.asyncExec(new Runnable() {
 			public void run() {
 				handleResize();
-				repaint();
+				autoscroll();
+				// only the newly simulated time span needs to be painted
+				startCanvasPaintJob(true);
 			}
 		});
 	}
@@ -2320,29 +2420,84 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		});
 	}
 
+	/*
+	 * time <-> pixel mapping
+	 * 
+	 * simulation times are BigIntegers but practically always fit into a
+	 * long, so the BigInteger variants only fall back to BigInteger
+	 * arithmetic for times of 63 bits and more.
+	 */
+
+	/**
+	 * @return true if the whole simulated time range fits into a long
+	 */
+	boolean isLongTimeRange() {
+		return fEndTime.bitLength() < 63 && fStartTime.bitLength() < 63;
+	}
+
 	int tX(BigInteger aTime) {
 
+		if (aTime.bitLength() < 63 && fStartTime.bitLength() < 63) {
+			return tX(aTime.longValue());
+		}
+
 		double t = aTime.subtract(fStartTime).doubleValue();
 
 		return BORDER_WIDTH + (int) (t / fFSPerUnit * fPixelsPerUnit);
 	}
 
+	int tX(long aTime) {
+
+		double t = aTime - fStartTime.longValue();
+
+		return BORDER_WIDTH + (int) (t / fFSPerUnit * fPixelsPerUnit);
+	}
+
 	int tW(BigInteger aTime) {
 
+		if (aTime.bitLength() < 63) {
+			return tW(aTime.longValue());
+		}
+
 		double w = aTime.doubleValue() / fFSPerUnit * fPixelsPerUnit;
 
 		return (int) w;
 	}
 
+	int tW(long aTime) {
+
+		double w = aTime / fFSPerUnit * fPixelsPerUnit;
+
+		return (int) w;
+	}
+
 	BigInteger tWI(double aX) {
+		return BigInteger.valueOf(tWIL(aX));
+	}
+
+	long tWIL(double aX) {
 		double d = aX / fPixelsPerUnit * fFSPerUnit;
-		return BigInteger.valueOf((long) d);
+		return (long) d;
 	}
 
 	BigInteger tXI(double aX) {
+		if (fStartTime.bitLength() < 62) {
+			long t = tXIL(aX);
+			// negative means aX < 0 or overflow, leave both to BigInteger
+			if (t >= 0) {
+				return BigInteger.valueOf(t);
+			}
+		}
 		return tWI(aX).add(fStartTime);
 	}
 
+	/**
+	 * Only valid if isLongTimeRange() and aX is within the simulated range.
+	 */
+	long tXIL(double aX) {
+		return tWIL(aX) + fStartTime.longValue();
+	}
+
 	private void paintWaveformCanvas(PaintEvent aPaintEvent) {
 		if (fOffscreenLock.tryLock())
 		try {
@@ -2477,10 +2632,25 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 	}
 
 	private void startCanvasPaintJob() {
+		startCanvasPaintJob(false);
+	}
+
+	/**
+	 * @param aAppend
+	 *            if true and nothing but the simulation end time changed
+	 *            since the last completed paint job, only the new time span
+	 *            is painted
+	 */
+
+	private void startCanvasPaintJob(boolean aAppend) {
+
+		if (!aAppend) {
+			fRepaintGeneration++;
+		}
 
 		Rectangle clientArea = fWaveformCanvas.getClientArea();
 
-		WaveformPaintJob job = new WaveformPaintJob(this, clientArea);
+		WaveformPaintJob job = new WaveformPaintJob(this, clientArea, aAppend, fRepaintGeneration);
 
 		if (fScheduler != null) {
 			fScheduler.schedule(job);
@@ -2624,6 +2794,20 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		} else {
 			fWaveformCanvas.redraw();
 		}
+
+		updateAnnotatedEditors();
+	}
+
+	/**
+	 * Editors showing simulation values follow the cursor.
+	 */
+	private void updateAnnotatedEditors() {
+		for (IEditorReference ref : getSite().getPage().getEditorReferences()) {
+			IEditorPart editor = ref.getEditor(false);
+			if (editor instanceof ZamiaEditor && ((ZamiaEditor) editor).isAnnotated()) {
+				((ZamiaEditor) editor).cursorMoved();
+			}
+		}
 	}
 
 	private void updateValueColumnRek(TreeItem aItem) {
@@ -2874,6 +3058,10 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		return fSimulator;
 	}
 
+	int getResetCount() {
+		return fResetCount;
+	}
+
 	int getXOffset() {
 		return fXOffset;
 	}
@@ -2890,6 +3078,21 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 		return fFSPerUnit;
 	}
 
+	double getPixelsPerUnit() {
+		return fPixelsPerUnit;
+	}
+
+	/**
+	 * intended to be called by WaveformPaintJob only, with fOffscreenLock held.
+	 */
+	WaveformPaintJob.RenderState getRenderState() {
+		return fRenderState;
+	}
+
+	void setRenderState(WaveformPaintJob.RenderState aRenderState) {
+		fRenderState = aRenderState;
+	}
+
 	private void saveTraces() {
 
 		// we need to traverse the tree
@@ -3148,7 +3351,10 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 			}
 
 			/* save forcing (enables resimulation of multiple forcings) */
-			saveForcing(fCursorTime, aSignalPath, value);
+			if (!saveForcing(fCursorTime, aSignalPath, value)) {
+				/* same value has already been forced at this time, nothing to do */
+				return;
+			}
 
 			/* force */
 			if (isFutureSimul) {
@@ -3201,8 +3407,8 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 			}
 		}
 
-		private void saveForcing(BigInteger aTime, PathName aSignalPath, IGStaticValue aValue) {
-			fForcingsTimeline.saveForcing(aTime, aSignalPath, aValue);
+		private boolean saveForcing(BigInteger aTime, PathName aSignalPath, IGStaticValue aValue) {
+			return fForcingsTimeline.saveForcing(aTime, aSignalPath, aValue);
 		}
 
 		private IGStaticValue parseValue(String aValueStr, IGTypeStatic aType, PathName aSignalPath) {
@@ -3228,13 +3434,20 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 
 		public void unforceFromCursor(BigInteger aFromTime, PathName... aSignalPaths) {
 			/* clear history of forcings for specified signals */
-			fForcingsTimeline.unforceFromCursor(aFromTime, aSignalPaths);
+			if (!fForcingsTimeline.unforceFromCursor(aFromTime, aSignalPaths)) {
+				/* none of the signals was forced, simulation is still valid */
+				return;
+			}
 			/* resimulate */
 			doResimulate();
 		}
 
 		public void unforceAllFromCursor(BigInteger aFromTime) {
 			/* clear history of forcings */
+			if (!fForcingsTimeline.hasForcingsFrom(aFromTime)) {
+				/* nothing forced from here on, simulation is still valid */
+				return;
+			}
 			if (aFromTime.equals(BigInteger.ZERO)) {
 				reset(); // speed-up
 			} else {
@@ -3282,33 +3495,45 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 				return fCurForcings;
 			}
 
-			public void saveForcing(BigInteger aTime, PathName aSignalPath, IGStaticValue aValue) {
+			/**
+			 * @return true if the timeline has changed, false if the same
+			 *         value was already forced at that time
+			 */
+			public boolean saveForcing(BigInteger aTime, PathName aSignalPath, IGStaticValue aValue) {
 				Forcings forcings = fForcings.get(aTime);
 				if (forcings == null) {
 					forcings = new Forcings();
 					fForcings.put(aTime, forcings);
 				}
 
-				forcings.saveForcing(aSignalPath, aValue);
+				return forcings.saveForcing(aSignalPath, aValue);
 			}
 
-			public void unforceFromCursor(BigInteger aFromTime, PathName... aSignalPaths) {
+			/**
+			 * @return true if at least one forcing has been removed
+			 */
+			public boolean unforceFromCursor(BigInteger aFromTime, PathName... aSignalPaths) {
 
-				BigInteger from = aFromTime;
-				BigInteger to = fForcings.lastKey();
+				boolean changed = false;
 
-				for (Forcings forcing : fForcings.subMap(from, true, to, true).values()) {
-					forcing.unforce(aSignalPaths);
+				Iterator<Forcings> it = fForcings.tailMap(aFromTime, true).values().iterator();
+				while (it.hasNext()) {
+					Forcings forcing = it.next();
+					changed |= forcing.unforce(aSignalPaths);
+					if (forcing.isEmpty()) {
+						it.remove();
+					}
 				}
 
+				return changed;
+			}
+
+			public boolean hasForcingsFrom(BigInteger aFromTime) {
+				return !fForcings.tailMap(aFromTime, true).isEmpty();
 			}
 
 			public void unforceAllFromCursor(BigInteger aFromTime) {
-				for (BigInteger time : fForcings.keySet()) {
-					if (time.compareTo(aFromTime) >= 0) {
-						fForcings.remove(time);
-					}
-				}
+				fForcings.tailMap(aFromTime, true).clear();
 			}
 
 			public class Forcings {
@@ -3341,14 +3566,21 @@ public class SimulatorView extends ViewPart implements IGISimObserver {
 					return fValue;
 				}
 
-				public void saveForcing(PathName aSignalPath, IGStaticValue aValue) {
-					fForcings.put(aSignalPath, aValue);
+				public boolean saveForcing(PathName aSignalPath, IGStaticValue aValue) {
+					IGStaticValue oldValue = fForcings.put(aSignalPath, aValue);
+					return oldValue == null || !oldValue.equals(aValue);
 				}
 
-				public void unforce(PathName... aSignalPaths) {
+				public boolean unforce(PathName... aSignalPaths) {
+					boolean changed = false;
 					for (PathName signalPath : aSignalPaths) {
-						fForcings.remove(signalPath);
+						changed |= fForcings.remove(signalPath) != null;
 					}
+					return changed;
+				}
+
+				public boolean isEmpty() {
+					return fForcings.isEmpty();
 				}
 			}
 		}
@@ -36,7 +36,7 @@ import org.eclipse.ui.dialogs.SelectionStatusDialog;
 import org.zamia.ExceptionLogger;
 import org.zamia.ZamiaLogger;
 import org.zamia.instgraph.sim.IGISimulator;
-import org.zamia.util.HashSetArray;
+import org.zamia.plugin.SignalIndex;
 import org.zamia.util.PathName;
 
 
@@ -59,8 +59,6 @@ public class TraceDialog extends SelectionStatusDialog {
 
 		private boolean fCanceled = false;
 
-		private java.util.List<PathName> fNames;
-
 		public synchronized void setSearchString(String aSearchString) {
 			fSearchString = aSearchString;
 			fNewSearchJob = true;
@@ -85,30 +83,27 @@ public class TraceDialog extends SelectionStatusDialog {
 				try {
 					String searchString = getSearchString();
 
-					if (fSimulator != null) {
+					IGISimulator sim = fSimulator;
+					if (sim != null) {
 						logger.debug("TraceDialog: Starting search on '%s'", searchString);
 
-						fNames = fSimulator.findSignalNamesRegexp(searchString, fSearchLimit);
+						java.util.List<PathName> names = sim.findSignalNamesRegexp(searchString, fSearchLimit);
+						final String items[] = new String[names.size()];
+						for (int i = 0; i < items.length; i++) {
+							items[i] = names.get(i).toString();
+						}
+
+						logger.debug("TraceDialog: %d search results", items.length);
 
 						if (!fCanceled) {
 							fDisplay.asyncExec(new Runnable() {
 
 								public void run() {
-									fList.removeAll();
-									fResults = new HashSetArray<PathName>();
-									int n = fNames.size();
-									for (int i = 0; i < n; i++) {
-
-										PathName path = fNames.get(i);
-
-										String pstr = path.toString();
-
-										fList.add(pstr);
-
-										fResults.add(path);
-
-										logger.debug("TraceDialog: Search result: %3d/%3d: %s", i, n, path);
+									if (fList.isDisposed()) {
+										return;
 									}
+									fList.setItems(items);
+									fProgressLabel.setText(items.length >= SignalIndex.MAX_RESULTS ? "First " + items.length + " signals shown" : "");
 								}
 							});
 						}
@@ -117,6 +112,8 @@ public class TraceDialog extends SelectionStatusDialog {
 
 				} catch (InterruptedException e) {
 					e.printStackTrace();
+				} catch (Throwable t) {
+					el.logException(t);
 				}
 			}
 		}
@@ -126,8 +123,6 @@ public class TraceDialog extends SelectionStatusDialog {
 		}
 	}
 
-	private HashSetArray<PathName> fResults;
-
 	private Text fPattern;
 
 	private List fList;
@@ -233,6 +228,8 @@ public class TraceDialog extends SelectionStatusDialog {
 		fCombo.add("25");
 		fCombo.add("50");
 		fCombo.add("100");
+		fCombo.add("1000");
+		fCombo.add("All");
 
 		fCombo.select(0);
 
@@ -255,6 +252,12 @@ public class TraceDialog extends SelectionStatusDialog {
 				case 2:
 					fSearchLimit = 100;
 					break;
+				case 3:
+					fSearchLimit = 1000;
+					break;
+				case 4:
+					fSearchLimit = SignalIndex.MAX_RESULTS;
+					break;
 				}
 
 				
@@ -359,7 +362,7 @@ public class TraceDialog extends SelectionStatusDialog {
 		header.setLayout(layout);
 
 		Label headerLabel = new Label(header, SWT.NONE);
-		headerLabel.setText("Select signals to be traced");
+		headerLabel.setText("Select signals to be traced (regular expression, matched by the simulator):");
 		headerLabel.addTraverseListener(new TraverseListener() {
 			public void keyTraversed(TraverseEvent e) {
 				if (e.detail == SWT.TRAVERSE_MNEMONIC && e.doit) {
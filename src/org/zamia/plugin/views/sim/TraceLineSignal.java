@@ -34,6 +34,8 @@ public class TraceLineSignal extends TraceLine {
 
 	public final static boolean ENABLE_SLOWDOWN = false;
 
+	private static final int MAX_BLOCK_START_STEPS = 16;
+
 	public final static ExceptionLogger el = ExceptionLogger.getInstance();
 
 	public final static ZamiaLogger logger = ZamiaLogger.getInstance();
@@ -54,6 +56,8 @@ public class TraceLineSignal extends TraceLine {
 
 	private int fHeadHeight;
 
+	private volatile TransitionSummary fSummary;
+
 	protected TraceLineSignal() {
 	}
 
@@ -202,21 +206,86 @@ public class TraceLineSignal extends TraceLine {
 		return gotoNextTransition(aCursor, aTimeLimit);
 	}
 
+	/**
+	 * Start of the value block (as painted by draw()) that contains aTime.
+	 * Used to repaint only the tail of a trace when the simulation proceeds.
+	 * Moves aCursor.
+	 * 
+	 * @return aTimeLimit if the block starts at or before aTimeLimit (or is
+	 *         too far away to find it cheaply)
+	 */
+
+	public BigInteger findBlockStart(IGISimCursor aCursor, BigInteger aTime, BigInteger aTimeLimit) throws ZamiaException {
+
+		if (!aCursor.gotoTransition(fSignalPath, aTime)) {
+			return aTimeLimit;
+		}
+		IGStaticValue value = getCurrentValue(aCursor);
+
+		BigInteger time = aTime;
+		for (int i = 0; i < MAX_BLOCK_START_STEPS; i++) {
+
+			BigInteger prev = findPreviousTransition(aCursor, time, aTimeLimit);
+			if (prev.compareTo(aTimeLimit) <= 0) {
+				return aTimeLimit;
+			}
+
+			// did the value actually change at prev?
+			if (!aCursor.gotoTransition(fSignalPath, prev.subtract(BigInteger.ONE))) {
+				return aTimeLimit;
+			}
+			IGStaticValue v = getCurrentValue(aCursor);
+			if (v == null || !v.equals(value)) {
+				return prev;
+			}
+
+			time = prev;
+		}
+
+		return aTimeLimit;
+	}
+
 	public IGStaticValue getCurrentValue(IGISimCursor aCursor) throws ZamiaException {
 		return aCursor.getCurrentValue();
 	}
 
+	/**
+	 * What draw() paints: value blocks and dense regions. Computing it only
+	 * queries the simulator, so rows can be computed concurrently (each with
+	 * a cursor of its own) and then painted one after the other.
+	 */
+
+	public static class Row {
+
+		// start and stop time of each block
+		private final ArrayList<BigInteger> fTimes = new ArrayList<BigInteger>();
+
+		// Character or String value of each block, null for a dense region
+		private final ArrayList<Object> fValues = new ArrayList<Object>();
+
+		private void add(BigInteger aStartTime, BigInteger aStopTime, Object aValue) {
+			fTimes.add(aStartTime);
+			fTimes.add(aStopTime);
+			fValues.add(aValue);
+		}
+	}
+
 	@Override
 	public void draw(IGISimCursor aCursor, GC aGC, int aXOffset, int aYOffset, int aVisibleWidth, int aHeadHeight, BigInteger aStartTime, BigInteger aTimeOffset,
 			BigInteger aEndTime, SimulatorView aViewer, IProgressMonitor aMonitor) throws ZamiaException {
 
+		draw(computeRow(aCursor, aXOffset, aVisibleWidth, aStartTime, aTimeOffset, aEndTime, aViewer, aMonitor), aGC, aYOffset, aHeadHeight);
+	}
+
+	public Row computeRow(IGISimCursor aCursor, int aXOffset, int aVisibleWidth, BigInteger aStartTime, BigInteger aTimeOffset, BigInteger aEndTime, SimulatorView aViewer,
+			IProgressMonitor aMonitor) throws ZamiaException {
+
 		fMonitor = aMonitor;
 		fViewer = aViewer;
 		fXOffset = aXOffset;
 		fVisibleWidth = aVisibleWidth;
-		fHeadHeight = aHeadHeight;
 
-		aGC.setForeground(fViewer.getColor(fColor));
+		Row row = new Row();
 
 		BigInteger time = aTimeOffset.subtract(aViewer.tWI(SimulatorView.BORDER_WIDTH));
 		if (time.compareTo(aStartTime) < 0) {
@@ -225,7 +294,7 @@ public class TraceLineSignal extends TraceLine {
 
 		if (!aCursor.gotoTransition(fSignalPath, time)) {
 			logger.error("Failed to find transition for signal '%s'", fSignalPath);
-			return;
+			return row;
 		}
 		IGStaticValue cv = getCurrentValue(aCursor);
 
@@ -235,7 +304,7 @@ public class TraceLineSignal extends TraceLine {
 		while (time.compareTo(aEndTime) < 0) {
 
 			if (!nv.equals(cv) || nextTime.compareTo(aEndTime) >= 0) {
-				drawValueBlock(aGC, cv, fTDM, time, nextTime, aYOffset);
+				row.add(time, nextTime, getBlockValue(cv));
 
 				time = nextTime;
 				cv = nv;
@@ -243,6 +312,23 @@ public class TraceLineSignal extends TraceLine {
 			nextTime = gotoNextTransition(aCursor, aEndTime);
 			nv = getCurrentValue(aCursor);
 
+			if (nextTime.compareTo(aEndTime) < 0 && fViewer.tX(nextTime) == fViewer.tX(time)) {
+
+				// more than one transition per pixel: summarize instead of stepping through them
+
+				BigInteger denseEnd = computeDenseRegion(row, aCursor, time, nextTime, aEndTime);
+				if (denseEnd == null) {
+					logger.error("Failed to find transition for signal '%s'", fSignalPath);
+					return row;
+				}
+				if (denseEnd.compareTo(time) > 0) {
+					time = denseEnd;
+					cv = getCurrentValue(aCursor);
+					nextTime = gotoNextTransition(aCursor, aEndTime);
+					nv = getCurrentValue(aCursor);
+				}
+			}
+
 			if (ENABLE_SLOWDOWN) {
 				try {
 					Thread.sleep(30);
@@ -250,14 +336,155 @@ public class TraceLineSignal extends TraceLine {
 				}
 			}
 			if (isCanceled()) {
-				return;
+				return row;
 			}
 		}
 		if (!isCanceled()) {
-			drawValueBlock(aGC, cv, fTDM, time, aEndTime, aYOffset);
+			row.add(time, aEndTime, getBlockValue(cv));
+		}
+		return row;
+	}
+
+	/**
+	 * Paint a row computed by computeRow().
+	 */
+
+	public void draw(Row aRow, GC aGC, int aYOffset, int aHeadHeight) {
+
+		fHeadHeight = aHeadHeight;
+
+		aGC.setForeground(fViewer.getColor(fColor));
+
+		int n = aRow.fValues.size();
+		for (int i = 0; i < n; i++) {
+			BigInteger start = aRow.fTimes.get(2 * i);
+			BigInteger stop = aRow.fTimes.get(2 * i + 1);
+			Object value = aRow.fValues.get(i);
+			if (value == null) {
+				drawDenseRegion(aGC, start, stop, aYOffset);
+			} else if (value instanceof Character) {
+				drawValueBlock(aGC, ((Character) value).charValue(), start, stop, aYOffset);
+			} else {
+				drawValueBlock(aGC, (String) value, start, stop, aYOffset);
+			}
 		}
 	}
 
+	/**
+	 * Record a region where every pixel column contains at least one
+	 * transition, it is drawn as a single filled block. aCursor is expected
+	 * at aNextTime and is left at the transition at the returned time if a
+	 * region was recorded, at aNextTime otherwise.
+	 * 
+	 * @return end time of the region, aTime if no dense region starts at
+	 *         aTime, null if the cursor could not be repositioned
+	 */
+
+	private BigInteger computeDenseRegion(Row aRow, IGISimCursor aCursor, BigInteger aTime, BigInteger aNextTime, BigInteger aEndTime) throws ZamiaException {
+
+		BigInteger end = aTime;
+
+		TransitionSummary summary = getSummary(aCursor, aTime, aEndTime);
+		if (summary != null) {
+			end = computeDenseRegion(summary, aTime, aEndTime);
+			if (end.compareTo(aTime) > 0) {
+				aRow.add(aTime, end, null);
+			}
+		}
+
+		// getSummary() may have moved the cursor
+		if (!aCursor.gotoTransition(fSignalPath, end.compareTo(aTime) > 0 ? end : aNextTime)) {
+			return null;
+		}
+		return end;
+	}
+
+	private BigInteger computeDenseRegion(TransitionSummary aSummary, BigInteger aTime, BigInteger aEndTime) {
+
+		int x1 = fViewer.tX(aTime) - fXOffset;
+		int xmax = fVisibleWidth + SimulatorView.BORDER_WIDTH;
+		long endTime = aEndTime.longValue();
+
+		long t = aTime.longValue();
+		int x = x1;
+		while (x <= xmax && t < endTime) {
+			long colEnd = fViewer.tXIL(x + 1 + fXOffset - SimulatorView.BORDER_WIDTH);
+			if (colEnd > endTime) {
+				colEnd = endTime;
+			}
+			long last = aSummary.getLastTransition(t, colEnd);
+			if (last < 0) {
+				break;
+			}
+			t = last;
+			x++;
+		}
+
+		if (x == x1) {
+			return aTime;
+		}
+		return BigInteger.valueOf(t);
+	}
+
+	private void drawDenseRegion(GC aGC, BigInteger aStartTime, BigInteger aStopTime, int aYPos) {
+
+		int x1 = fViewer.tX(aStartTime) - fXOffset;
+		int x2 = fViewer.tX(aStopTime) - fXOffset;
+		int xmax = fVisibleWidth + SimulatorView.BORDER_WIDTH;
+		if (x2 > xmax) {
+			x2 = xmax;
+		}
+		if (x1 < SimulatorView.BORDER_WIDTH) {
+			x1 = SimulatorView.BORDER_WIDTH;
+		}
+
+		int h = aGC.getFontMetrics().getHeight();
+
+		int clipY = aYPos;
+		int clipH = h + 1;
+
+		if (clipY < fHeadHeight) {
+			clipH -= (fHeadHeight - clipY);
+			clipY = fHeadHeight;
+			if (clipH < 0) {
+				clipH = 0;
+			}
+		}
+
+		aGC.setClipping(x1, clipY, x2 - x1 + 1, clipH);
+
+		aGC.setBackground(fViewer.getColor(fColor));
+		aGC.setAlpha(100);
+		aGC.fillRectangle(x1, aYPos, x2 - x1 + 1, h);
+		aGC.setAlpha(255);
+		aGC.drawLine(x1, aYPos, x2, aYPos);
+		aGC.drawLine(x1, aYPos + h, x2, aYPos + h);
+	}
+
+	/**
+	 * Returns the transition summary for this trace, (re-)building it for
+	 * aTime .. aEndTime if necessary. Summaries built before the last simulator
+	 * reset or starting after aTime are discarded. Moves aCursor.
+	 * 
+	 * @return null if no summary is available for this trace
+	 */
+
+	private TransitionSummary getSummary(IGISimCursor aCursor, BigInteger aTime, BigInteger aEndTime) throws ZamiaException {
+		if (!fViewer.isLongTimeRange()) {
+			return null;
+		}
+		TransitionSummary summary = fSummary;
+		int resetCount = fViewer.getResetCount();
+		if (summary == null || summary.getResetCount() != resetCount || summary.getOrigin() > aTime.longValue()) {
+			summary = new TransitionSummary(aTime.longValue(), aEndTime.longValue(), resetCount);
+			fSummary = summary;
+		}
+		if (!summary.extend(this, aCursor, aEndTime, fMonitor)) {
+			return null;
+		}
+		return summary;
+	}
+
 	private boolean isCanceled() {
 		if (fMonitor != null) {
 			return fMonitor.isCanceled();
@@ -265,17 +492,13 @@ public class TraceLineSignal extends TraceLine {
 		return false;
 	}
 
-	private void drawValueBlock(GC aGC, IGStaticValue aValue, TraceDisplayMode aDisplayMode, BigInteger aStartTime, BigInteger aStopTime, int aYPos) {
+	private Object getBlockValue(IGStaticValue aValue) {
 
 		IGTypeStatic t = aValue.getStaticType();
 		if (t.isLogic() && !t.isArray()) {
-			drawValueBlock(aGC, aValue.getCharLiteral(), aStartTime, aStopTime, aYPos);
-		} else {
-
-			String str = formatSignalValue(aValue, aDisplayMode);
-			drawValueBlock(aGC, str, aStartTime, aStopTime, aYPos);
-			
+			return Character.valueOf(aValue.getCharLiteral());
 		}
+		return formatSignalValue(aValue, fTDM);
 	}
 
 	private void drawValueBlock(GC aGC, char aValue, BigInteger aStartTime, BigInteger aStopTime, int aYPos) {
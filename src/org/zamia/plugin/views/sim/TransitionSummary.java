@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 by the authors indicated in the @author tags.
+ * All rights reserved.
+ *
+ * See the LICENSE file for details.
+ */
+package org.zamia.plugin.views.sim;
+
+import java.math.BigInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.zamia.ZamiaException;
+import org.zamia.instgraph.sim.IGISimCursor;
+
+
+/**
+ * Multi-resolution summary of the transitions of one trace line.
+ *
+ * The summarized time span, starting at the origin, is divided into
+ * NUM_BUCKETS buckets of equal width. Each bucket keeps the number of
+ * transitions as well as the first and last transition time inside it, the
+ * counts are also kept in a binary tree so runs of empty buckets can be
+ * skipped. A transition beyond the last bucket merges neighbouring buckets
+ * and doubles the bucket width, so memory does not grow with the number of
+ * transitions.
+ *
+ * The summary is extended incrementally as the visible time range grows,
+ * every transition is visited once.
+ */
+
+public class TransitionSummary {
+
+	// must be a power of two
+	private static final int NUM_BUCKETS = 4096;
+
+	private static final BigInteger MAX_TIME = BigInteger.valueOf(Long.MAX_VALUE);
+
+	private final long fOrigin;
+
+	private long fBucketWidth;
+
+	// fCount[1] is the root, fCount[NUM_BUCKETS + b] is the count of bucket b
+	private final int[] fCount = new int[2 * NUM_BUCKETS];
+
+	private final long[] fMin = new long[NUM_BUCKETS];
+
+	private final long[] fMax = new long[NUM_BUCKETS];
+
+	private long fLastTransition;
+
+	private long fScannedUntil;
+
+	private boolean fValid = true;
+
+	private final int fResetCount;
+
+	public TransitionSummary(long aOrigin, long aEndTime, int aResetCount) {
+		fOrigin = aOrigin;
+		fBucketWidth = Math.max((aEndTime - aOrigin + NUM_BUCKETS - 1) / NUM_BUCKETS, 1);
+		fLastTransition = aOrigin;
+		fScannedUntil = aOrigin;
+		fResetCount = aResetCount;
+	}
+
+	public int getResetCount() {
+		return fResetCount;
+	}
+
+	public long getOrigin() {
+		return fOrigin;
+	}
+
+	/**
+	 * Make sure all transitions up to aTime are recorded. Moves aCursor.
+	 *
+	 * @return false if the summary could not be built (or was aborted), true otherwise
+	 */
+
+	public synchronized boolean extend(TraceLineSignal aTL, IGISimCursor aCursor, BigInteger aTime, IProgressMonitor aMonitor) throws ZamiaException {
+
+		if (!fValid) {
+			return false;
+		}
+		if (aTime.compareTo(MAX_TIME) > 0) {
+			fValid = false;
+			return false;
+		}
+		long time = aTime.longValue();
+		if (time <= fScannedUntil) {
+			return true;
+		}
+
+		if (!aCursor.gotoTransition(aTL.getSignalPath(), BigInteger.valueOf(fLastTransition))) {
+			fValid = false;
+			return false;
+		}
+
+		while (true) {
+			BigInteger t = aTL.gotoNextTransition(aCursor, aTime);
+			if (t.compareTo(aTime) >= 0) {
+				break;
+			}
+			long lt = t.longValue();
+			if (lt > fLastTransition) {
+				if (!add(lt)) {
+					fValid = false;
+					return false;
+				}
+				fLastTransition = lt;
+			}
+			if (aMonitor != null && aMonitor.isCanceled()) {
+				// keep what we have, resume from fLastTransition next time
+				fScannedUntil = fLastTransition;
+				return false;
+			}
+		}
+
+		fScannedUntil = time;
+		return true;
+	}
+
+	private int bucket(long aTime) {
+		long b = (aTime - fOrigin - 1) / fBucketWidth;
+		return b < NUM_BUCKETS ? (int) b : NUM_BUCKETS;
+	}
+
+	private boolean add(long aTime) {
+
+		int b = bucket(aTime);
+		while (b >= NUM_BUCKETS) {
+			if (fBucketWidth > Long.MAX_VALUE / 2) {
+				return false;
+			}
+			coarsen();
+			b = bucket(aTime);
+		}
+
+		// transitions arrive in ascending order
+		if (fCount[NUM_BUCKETS + b] == 0) {
+			fMin[b] = aTime;
+		}
+		fMax[b] = aTime;
+
+		for (int node = NUM_BUCKETS + b; node >= 1; node >>= 1) {
+			fCount[node]++;
+		}
+		return true;
+	}
+
+	// merge pairs of buckets, doubling the bucket width
+	private void coarsen() {
+
+		int half = NUM_BUCKETS / 2;
+		for (int j = 0; j < half; j++) {
+			int l = 2 * j;
+			int r = l + 1;
+			int cl = fCount[NUM_BUCKETS + l];
+			int cr = fCount[NUM_BUCKETS + r];
+			fMin[j] = cl > 0 ? fMin[l] : fMin[r];
+			fMax[j] = cr > 0 ? fMax[r] : fMax[l];
+			fCount[NUM_BUCKETS + j] = cl + cr;
+		}
+		for (int j = half; j < NUM_BUCKETS; j++) {
+			fCount[NUM_BUCKETS + j] = 0;
+		}
+		for (int node = NUM_BUCKETS - 1; node >= 1; node--) {
+			fCount[node] = fCount[2 * node] + fCount[2 * node + 1];
+		}
+
+		fBucketWidth *= 2;
+	}
+
+	/**
+	 * Time of the last transition t with aFrom < t <= aTo. If the bucket
+	 * holding it extends beyond aTo, aTo is returned.
+	 *
+	 * @return -1 if there is no transition in that interval or the buckets
+	 *         are too coarse to tell
+	 */
+
+	public synchronized long getLastTransition(long aFrom, long aTo) {
+
+		if (aTo <= aFrom || aFrom < fOrigin || aTo > fScannedUntil || fBucketWidth > aTo - aFrom) {
+			return -1;
+		}
+
+		int lo = bucket(aFrom + 1);
+		int hi = bucket(aTo);
+		if (lo >= NUM_BUCKETS) {
+			return -1;
+		}
+		if (hi >= NUM_BUCKETS) {
+			hi = NUM_BUCKETS - 1;
+		}
+
+		while (true) {
+			int b = lastNonEmpty(lo, hi);
+			if (b < 0) {
+				return -1;
+			}
+			if (fMin[b] > aTo) {
+				// all transitions of the bucket holding aTo are after aTo
+				hi = b - 1;
+				continue;
+			}
+			if (fMax[b] <= aFrom) {
+				return -1;
+			}
+			return fMax[b] < aTo ? fMax[b] : aTo;
+		}
+	}
+
+	// last bucket in [aLo, aHi] with transitions, -1 if there is none
+	private int lastNonEmpty(int aLo, int aHi) {
+
+		int i = aHi;
+		while (i >= aLo) {
+
+			// largest aligned block of buckets ending at i that starts at or after aLo
+			int level = Integer.numberOfTrailingZeros(i + 1);
+			while (level > 0 && i + 1 - (1 << level) < aLo) {
+				level--;
+			}
+
+			while (true) {
+				int node = (NUM_BUCKETS >> level) + ((i + 1) >> level) - 1;
+				if (fCount[node] == 0) {
+					i -= 1 << level;
+					break;
+				}
+				if (level == 0) {
+					return i;
+				}
+				// descend into the right half, which also ends at i
+				level--;
+			}
+		}
+		return -1;
+	}
+}
@@ -10,6 +10,9 @@ package org.zamia.plugin.views.sim;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -98,6 +101,89 @@ public class WaveformPaintJob extends Job {
 			return fHeight;
 		}
 
+		boolean sameRow(TreeItemInfo aOther) {
+			return fTL == aOther.fTL && fYOffset == aOther.fYOffset && fHeight == aOther.fHeight;
+		}
+
+	}
+
+	/**
+	 * What paintRow() does with a row, computed by computeRow().
+	 */
+
+	static class RowData {
+
+		// leave the row alone
+		private boolean fSkip = false;
+
+		// append mode: repaint from this time on only, null for the whole row
+		private BigInteger fFrom = null;
+
+		// signal rows only, null if it could not be computed
+		private TraceLineSignal.Row fRow = null;
+	}
+
+	/**
+	 * Describes what the offscreen image shows after a completed paint job.
+	 * If a new job differs only in the simulation end time, it can keep the
+	 * image and paint just the newly simulated time span.
+	 */
+
+	static class RenderState {
+
+		private final int fGeneration;
+
+		private final int fXOffset;
+
+		private final int fVisibleWidth;
+
+		private final double fFSPerUnit;
+
+		private final double fPixelsPerUnit;
+
+		private final Rectangle fClientArea;
+
+		private final BigInteger fStartTime;
+
+		private final BigInteger fRenderedEnd;
+
+		private final ArrayList<TreeItemInfo> fRows;
+
+		RenderState(WaveformPaintJob aJob, BigInteger aRenderedEnd) {
+			fGeneration = aJob.fGeneration;
+			fXOffset = aJob.fXOffset;
+			fVisibleWidth = aJob.fVisibleWidth;
+			fFSPerUnit = aJob.fFSPerUnit;
+			fPixelsPerUnit = aJob.fPixelsPerUnit;
+			fClientArea = aJob.fClientArea;
+			fStartTime = aJob.fStartTime;
+			fRenderedEnd = aRenderedEnd;
+			fRows = aJob.fTreeItems;
+		}
+
+		BigInteger getRenderedEnd() {
+			return fRenderedEnd;
+		}
+
+		boolean canAppend(WaveformPaintJob aJob) {
+			if (fGeneration != aJob.fGeneration || fXOffset != aJob.fXOffset || fVisibleWidth != aJob.fVisibleWidth || fFSPerUnit != aJob.fFSPerUnit
+					|| fPixelsPerUnit != aJob.fPixelsPerUnit || !fClientArea.equals(aJob.fClientArea) || !fStartTime.equals(aJob.fStartTime)) {
+				return false;
+			}
+			if (fRenderedEnd.compareTo(aJob.fEndTime) > 0) {
+				return false;
+			}
+			int n = fRows.size();
+			if (n != aJob.fTreeItems.size()) {
+				return false;
+			}
+			for (int i = 0; i < n; i++) {
+				if (!fRows.get(i).sameRow(aJob.fTreeItems.get(i))) {
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 
 	private ArrayList<TreeItemInfo> fTreeItems = new ArrayList<TreeItemInfo>();
@@ -112,10 +198,21 @@ public class WaveformPaintJob extends Job {
 
 	private long fLastRepaint;
 
+	private final boolean fAppend;
+
+	private final int fGeneration;
+
+	private double fPixelsPerUnit;
+
+	// parameters of the current run, shared by all row workers
+	private boolean fAppendMode;
+
+	private BigInteger fPaintedEnd, fDrawStart, fTimeOffset, fEndTimeOffset;
+
 	// bad hack to fix d&d gtk redraw problem
 	private static int tableCellHeight = -1;
 
-	public WaveformPaintJob(SimulatorView aViewer, Rectangle aClientArea) {
+	public WaveformPaintJob(SimulatorView aViewer, Rectangle aClientArea, boolean aAppend, int aGeneration) {
 		super("Paint waveform");
 		setSystem(true);
 		fViewer = aViewer;
@@ -127,10 +224,9 @@ public class WaveformPaintJob extends Job {
 		fClientArea = aClientArea;
 		fVisibleWidth = fViewer.getVisibleWidth();
 		fFSPerUnit = fViewer.getFSPerUnit();
-
-		if (fSim != null) {
-			fCursor = fSim.createCursor();
-		}
+		fPixelsPerUnit = fViewer.getPixelsPerUnit();
+		fAppend = aAppend;
+		fGeneration = aGeneration;
 
 		fLastRepaint = System.currentTimeMillis();
 		
@@ -195,6 +291,12 @@ public class WaveformPaintJob extends Job {
 		fViewer.fOffscreenLock.lock();
 		try {
 
+		// whatever happens below, the image will no longer match the previous state
+		RenderState previous = fViewer.getRenderState();
+		fViewer.setRenderState(null);
+
+		boolean append = fAppend && previous != null && previous.canAppend(this);
+
 		Image displayImage = fViewer.resizeOffscreenImage(fClientArea);
 		GC gc = new GC(displayImage);
 
@@ -202,7 +304,9 @@ public class WaveformPaintJob extends Job {
 
 		gc.setBackground(fBlack);
 		gc.setForeground(fGreen);
-		gc.fillRectangle(0, 0, fClientArea.width, fClientArea.height);
+		if (!append) {
+			gc.fillRectangle(0, 0, fClientArea.width, fClientArea.height);
+		}
 
 		if (fSim == null) {
 			gc.drawText("No Data", 20, fClientArea.height / 2);
@@ -230,8 +334,133 @@ public class WaveformPaintJob extends Job {
 		gc.fillRectangle(0, 0, fClientArea.width, 20);
 		gc.setForeground(fWhite);
 
+		if (!fViewer.isLongTimeRange() || endTimeOffset.bitLength() >= 62 || !drawTimeline(gc, (long) fFSPerUnit, timeOffset.longValue(), endTimeOffset.longValue())) {
+			drawTimeline(gc, fsPerUnit, timeOffset, endTimeOffset);
+		}
+
+		//repaintViewer(false);
+
+		/*
+		 * repaint waveforms
+		 */
+
+		if (endTimeOffset.compareTo(fEndTime) > 0) {
+			endTimeOffset = fEndTime;
+		}
+
+		// in append mode rows are only repainted from the value block containing the previous end on
+		fAppendMode = append;
+		fPaintedEnd = append ? previous.getRenderedEnd().min(endTimeOffset) : null;
+		fDrawStart = timeOffset.subtract(fViewer.tWI(SimulatorView.BORDER_WIDTH));
+		if (fDrawStart.compareTo(fStartTime) < 0) {
+			fDrawStart = fStartTime;
+		}
+		fTimeOffset = timeOffset;
+		fEndTimeOffset = endTimeOffset;
+
+		gc.setClipping(fClientArea.x, fClientArea.y + fHeadHeight, fClientArea.width, fClientArea.height - fHeadHeight);
+
+		int n = fTreeItems.size();
+		int numWorkers = Math.min(SimWorkers.NUM_WORKERS, n);
+
+		if (numWorkers > 1) {
+
+			paintRowsParallel(gc, numWorkers);
+
+		} else {
+
+			for (int i = 0; i < n; i++) {
+
+				TreeItemInfo tii = fTreeItems.get(i);
+
+				gc.setClipping(fClientArea.x, fClientArea.y + fHeadHeight, fClientArea.width, fClientArea.height - fHeadHeight);
+
+				paintRow(gc, tii, computeRow(getCursor(), tii));
+
+				if (isCanceled()) {
+					break;
+				}
+			}
+		}
+		gc.dispose();
+		if (!isCanceled()) {
+			fViewer.setRenderState(new RenderState(this, endTimeOffset));
+		}
+		repaintViewer(!isCanceled());
+		} finally {
+			fViewer.fOffscreenLock.unlock();			
+		}
+		
+		if (fCursor != null) {
+			fCursor.dispose();
+			fCursor = null;
+		}
+
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Timeline using long arithmetic.
+	 * 
+	 * @return false if the scale would not fit into a long
+	 */
+
+	private boolean drawTimeline(GC aGC, long aFSPerUnit, long aTimeOffset, long aEndTimeOffset) {
+
+		if (aFSPerUnit <= 0) {
+			return false;
+		}
+
+		// choose scale
+		long majorScale = aFSPerUnit;
+		while (true) {
+
+			if (majorScale > Long.MAX_VALUE / 25) {
+				return false;
+			}
+
+			int w = fViewer.tW(majorScale);
+			if (w > 100) {
+				break;
+			}
+			majorScale = majorScale * 25 / 10;
+			w = fViewer.tW(majorScale);
+			if (w > 100) {
+				break;
+			}
+			majorScale = majorScale * 2;
+			w = fViewer.tW(majorScale);
+			if (w > 100) {
+				break;
+			}
+			majorScale = majorScale * 2;
+		}
+
+		long minorScale = majorScale / 5;
+		if (minorScale <= 0) {
+			minorScale = majorScale;
+		}
+
+		long time = aTimeOffset - aTimeOffset % majorScale;
+		while (time <= aEndTimeOffset) {
+			int x = fViewer.tX(time) - fXOffset;
+
+			if (time % majorScale == 0) {
+				aGC.drawLine(x, 14, x, 19);
+				String s = Long.toString(time / aFSPerUnit);
+				aGC.drawText(s, x - aGC.textExtent(s).x / 2, 0);
+			} else
+				aGC.drawLine(x, 19, x, 19);
+			time += minorScale;
+		}
+
+		return true;
+	}
+
+	private void drawTimeline(GC aGC, BigInteger aFSPerUnit, BigInteger aTimeOffset, BigInteger aEndTimeOffset) {
+
 		// choose scale
-		BigInteger majorScale = fsPerUnit;
+		BigInteger majorScale = aFSPerUnit;
 		while (true) {
 
 			int w = fViewer.tW(majorScale);
@@ -253,66 +482,154 @@ public class WaveformPaintJob extends Job {
 
 		BigInteger minorScale = majorScale.divide(BigInteger.valueOf(5));
 
-		BigInteger time = timeOffset.subtract(timeOffset.mod(majorScale));
-		while (time.compareTo(endTimeOffset) <= 0) {
+		BigInteger time = aTimeOffset.subtract(aTimeOffset.mod(majorScale));
+		while (time.compareTo(aEndTimeOffset) <= 0) {
 			int x = fViewer.tX(time) - fXOffset;
 
 			if (time.mod(majorScale).signum() == 0) {
-				gc.drawLine(x, 14, x, 19);
-				BigInteger scaledTime = time.divide(fsPerUnit);
+				aGC.drawLine(x, 14, x, 19);
+				BigInteger scaledTime = time.divide(aFSPerUnit);
 				String s = "" + scaledTime;
-				gc.drawText(s, x - gc.textExtent(s).x / 2, 0);
+				aGC.drawText(s, x - aGC.textExtent(s).x / 2, 0);
 			} else
-				gc.drawLine(x, 19, x, 19);
+				aGC.drawLine(x, 19, x, 19);
 			time = time.add(minorScale);
 		}
+	}
 
-		//repaintViewer(false);
+	// only created if a row is computed or drawn on the job's thread
+	private IGISimCursor getCursor() {
+		if (fCursor == null) {
+			fCursor = fSim.createCursor();
+		}
+		return fCursor;
+	}
 
-		/*
-		 * repaint waveforms
-		 */
+	/**
+	 * Queries the simulator for what a row shows, does not touch SWT.
+	 */
 
-		if (endTimeOffset.compareTo(fEndTime) > 0) {
-			endTimeOffset = fEndTime;
-		}
+	private RowData computeRow(IGISimCursor aCursor, TreeItemInfo aTII) {
 
-		int n = fTreeItems.size();
-		for (int i = 0; i < n; i++) {
+		TraceLine tl = aTII.getTL();
 
-			TreeItemInfo tii = fTreeItems.get(i);
+		RowData rd = new RowData();
 
-			TraceLine tl = tii.getTL();
+		try {
+			if (fAppendMode) {
 
-			gc.setClipping(fClientArea.x, fClientArea.y + fHeadHeight, fClientArea.width, fClientArea.height - fHeadHeight);
+				// markers do not depend on simulation progress
+				if (!(tl instanceof TraceLineSignal) || fPaintedEnd.compareTo(fEndTimeOffset) >= 0) {
+					rd.fSkip = true;
+					return rd;
+				}
 
-			gc.setForeground(fGreen);
-			gc.setBackground(fBlack);
+				BigInteger from = ((TraceLineSignal) tl).findBlockStart(aCursor, fPaintedEnd, fDrawStart);
 
-			gc.fillRectangle(0, tii.getYOffset(), fClientArea.width, tii.getHeight());
+				if (from.compareTo(fDrawStart) > 0) {
+					rd.fFrom = from;
+				}
+			}
 
-			try {
-				tl.draw(fCursor, gc, fXOffset, tii.getYOffset() + 2, fVisibleWidth, fHeadHeight, fStartTime, timeOffset, endTimeOffset, fViewer, aMonitor);
-			} catch (Throwable t) {
-				el.logException(t);
+			if (tl instanceof TraceLineSignal) {
+				BigInteger timeOffset = rd.fFrom != null ? rd.fFrom.add(fViewer.tWI(SimulatorView.BORDER_WIDTH)) : fTimeOffset;
+				rd.fRow = ((TraceLineSignal) tl).computeRow(aCursor, fXOffset, fVisibleWidth, fStartTime, timeOffset, fEndTimeOffset, fViewer, fMonitor);
 			}
+		} catch (Throwable t) {
+			el.logException(t);
+		}
+		return rd;
+	}
 
-			if (isCanceled()) {
-				break;
+	/**
+	 * Paints one trace row, computed by computeRow().
+	 */
+
+	private void paintRow(GC aGC, TreeItemInfo aTII, RowData aRD) {
+
+		if (aRD.fSkip) {
+			return;
+		}
+
+		TraceLine tl = aTII.getTL();
+		int yOffset = aTII.getYOffset();
+
+		aGC.setForeground(fGreen);
+		aGC.setBackground(fBlack);
+
+		int x = aRD.fFrom != null ? Math.max(0, fViewer.tX(aRD.fFrom) - fXOffset) : 0;
+		aGC.fillRectangle(x, yOffset, fClientArea.width - x, aTII.getHeight());
+
+		try {
+			if (tl instanceof TraceLineSignal) {
+				if (aRD.fRow != null) {
+					((TraceLineSignal) tl).draw(aRD.fRow, aGC, yOffset + 2, fHeadHeight);
+				}
+			} else {
+				tl.draw(getCursor(), aGC, fXOffset, yOffset + 2, fVisibleWidth, fHeadHeight, fStartTime, fTimeOffset, fEndTimeOffset, fViewer, fMonitor);
 			}
+		} catch (Throwable t) {
+			el.logException(t);
+		}
+	}
 
-			//repaintViewer(false);
+	/**
+	 * Computes the signal rows concurrently, each worker with a simulator
+	 * cursor of its own. The rows are then painted into aGC one after the
+	 * other on this thread, the workers never touch SWT.
+	 */
+
+	private void paintRowsParallel(GC aGC, int aNumWorkers) {
+
+		final int n = fTreeItems.size();
+		final RowData rows[] = new RowData[n];
+		final AtomicInteger nextRow = new AtomicInteger(0);
+
+		ArrayList<Future<?>> workers = new ArrayList<Future<?>>(aNumWorkers);
+
+		for (int p = 0; p < aNumWorkers; p++) {
+			workers.add(SimWorkers.getExecutor().submit(new Runnable() {
+				public void run() {
+					IGISimCursor cursor = fSim.createCursor();
+					try {
+						int i;
+						while ((i = nextRow.getAndIncrement()) < n && !isCanceled()) {
+							TreeItemInfo tii = fTreeItems.get(i);
+							if (tii.getTL() instanceof TraceLineSignal) {
+								rows[i] = computeRow(cursor, tii);
+							}
+						}
+					} finally {
+						cursor.dispose();
+					}
+				}
+			}));
 		}
-		gc.dispose();
-		repaintViewer(!isCanceled());
-		} finally {
-			fViewer.fOffscreenLock.unlock();			
+
+		for (Future<?> worker : workers) {
+			try {
+				worker.get();
+			} catch (InterruptedException e) {
+				el.logException(e);
+			} catch (ExecutionException e) {
+				el.logException(e);
+			}
 		}
-		
-		fCursor.dispose();
-		fCursor = null;
 
-		return Status.OK_STATUS;
+		for (int i = 0; i < n && !isCanceled(); i++) {
+
+			TreeItemInfo tii = fTreeItems.get(i);
+
+			RowData rd = rows[i];
+			if (rd == null) {
+				// not a signal: there is no simulator data to compute
+				rd = computeRow(null, tii);
+			}
+
+			aGC.setClipping(fClientArea.x, fClientArea.y + fHeadHeight, fClientArea.width, fClientArea.height - fHeadHeight);
+
+			paintRow(aGC, tii, rd);
+		}
 	}
 
 	private void repaintViewer(boolean aForce) {